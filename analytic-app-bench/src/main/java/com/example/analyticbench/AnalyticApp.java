@@ -0,0 +1,62 @@
+package com.example.analyticbench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+// analytic-app lives in the unnamed package, which source in a named package cannot import (and JMH
+// refuses benchmark classes in the unnamed package). Benchmarks reach it through method handles held in
+// static finals, which the JIT treats as constants and inlines like direct calls.
+final class AnalyticApp {
+    private static final Class<?> EVENT_STORE = load("EventStore");
+
+    // (long seed, long baseTimeMs, int users, int sessionsPerUser, int minEvents, int maxEvents) -> List<User>
+    static final MethodHandle GENERATE_USERS = find("AnalyticsDemo", "generateUsers",
+            MethodType.methodType(List.class, long.class, long.class, int.class, int.class, int.class, int.class));
+
+    // (List<User>) -> EventStore, returned as Object
+    static final MethodHandle BUILD_STORE = find("EventStore", "of",
+            MethodType.methodType(EVENT_STORE, List.class))
+            .asType(MethodType.methodType(Object.class, List.class));
+
+    // (List<User>, double threshold) -> List<Event>
+    static final MethodHandle STREAM = pipeline("stream");
+    static final MethodHandle PARALLEL_STREAM = pipeline("parallelStream");
+    static final MethodHandle EVENT_BALANCED_PARALLEL = pipeline("eventBalancedParallel");
+    static final MethodHandle LOOP = pipeline("loop");
+    static final MethodHandle ZONE_MAPPED = pipeline("zoneMapped");
+
+    // (EventStore as Object, double threshold) -> long count / double sum
+    static final MethodHandle COLUMNAR_COUNT = columnar("columnarCount", long.class);
+    static final MethodHandle COLUMNAR_SCALAR_COUNT = columnar("columnarScalarCount", long.class);
+    static final MethodHandle COLUMNAR_SUM = columnar("columnarSum", double.class);
+    static final MethodHandle COLUMNAR_SCALAR_SUM = columnar("columnarScalarSum", double.class);
+
+    private AnalyticApp() {}
+
+    private static MethodHandle pipeline(String name) {
+        return find("AnalyticsPipelines", name, MethodType.methodType(List.class, List.class, double.class));
+    }
+
+    private static MethodHandle columnar(String name, Class<?> result) {
+        return find("AnalyticsPipelines", name, MethodType.methodType(result, EVENT_STORE, double.class))
+                .asType(MethodType.methodType(result, Object.class, double.class));
+    }
+
+    private static MethodHandle find(String className, String method, MethodType type) {
+        try {
+            return MethodHandles.publicLookup().findStatic(load(className), method, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("analytic-app is missing " + className + "." + method + type, e);
+        }
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("analytic-app class not on the classpath: " + className, e);
+        }
+    }
+}
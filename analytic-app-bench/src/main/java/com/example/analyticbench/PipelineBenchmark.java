@@ -0,0 +1,106 @@
+package com.example.analyticbench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// "active users -> active sessions -> API_CALL with value > threshold" under each execution strategy.
+// The dataset is rebuilt per trial from a fixed seed and base time, so every fork and every run scans
+// identical data.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class PipelineBenchmark {
+    private static final long SEED = 42L;
+    // Fixed rather than the generator's default of now, which would shift every timestamp per trial
+    private static final long BASE_TIME_MS = 1_700_000_000_000L;
+
+    @Param({"1000", "10000"})
+    int userCount;
+
+    @Param({"10"})
+    int sessionsPerUser;
+
+    @Param({"5", "20"})
+    int eventsPerSession;
+
+    // Fraction of API_CALL events that pass the value filter; values are uniform in [0, 1)
+    @Param({"0.05", "0.5"})
+    double selectivity;
+
+    private List<?> users;
+    private Object store;
+    private double threshold;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        users = (List<?>) AnalyticApp.GENERATE_USERS.invokeExact(SEED, BASE_TIME_MS, userCount, sessionsPerUser,
+                eventsPerSession, eventsPerSession);
+        store = (Object) AnalyticApp.BUILD_STORE.invokeExact(users);
+        threshold = 1.0 - selectivity;
+    }
+
+    @Benchmark
+    public List<?> stream() throws Throwable {
+        return (List<?>) AnalyticApp.STREAM.invokeExact(users, threshold);
+    }
+
+    @Benchmark
+    public List<?> loop() throws Throwable {
+        return (List<?>) AnalyticApp.LOOP.invokeExact(users, threshold);
+    }
+
+    // Same scan as loop() but skips sessions/users whose zone map rules out API_CALL > threshold;
+    // the gap to loop() widens as selectivity drops
+    @Benchmark
+    public List<?> zoneMapped() throws Throwable {
+        return (List<?>) AnalyticApp.ZONE_MAPPED.invokeExact(users, threshold);
+    }
+
+    @Benchmark
+    public List<?> parallelStream() throws Throwable {
+        return (List<?>) AnalyticApp.PARALLEL_STREAM.invokeExact(users, threshold);
+    }
+
+    @Benchmark
+    public List<?> eventBalancedParallel() throws Throwable {
+        return (List<?>) AnalyticApp.EVENT_BALANCED_PARALLEL.invokeExact(users, threshold);
+    }
+
+    // The columnar* benchmarks use the vector scan kernel (forks run with jdk.incubator.vector);
+    // the *Scalar* variants force the scalar kernel over the same columns
+    @Benchmark
+    public long columnarCount() throws Throwable {
+        return (long) AnalyticApp.COLUMNAR_COUNT.invokeExact(store, threshold);
+    }
+
+    @Benchmark
+    public long columnarScalarCount() throws Throwable {
+        return (long) AnalyticApp.COLUMNAR_SCALAR_COUNT.invokeExact(store, threshold);
+    }
+
+    @Benchmark
+    public double columnarSum() throws Throwable {
+        return (double) AnalyticApp.COLUMNAR_SUM.invokeExact(store, threshold);
+    }
+
+    @Benchmark
+    public double columnarScalarSum() throws Throwable {
+        return (double) AnalyticApp.COLUMNAR_SCALAR_SUM.invokeExact(store, threshold);
+    }
+}
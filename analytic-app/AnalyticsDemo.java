@@ -1,89 +1,574 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class AnalyticsDemo {
-    public static void main(String[] args) {
+    // Timestamp order with ties broken by value, so equal-timestamp events compare deterministically
+    private static final Comparator<Event> CANONICAL_ORDER =
+            Comparator.comparingLong(Event::getTimestamp).thenComparingDouble(Event::getValue);
+
+    public static void main(String[] args) throws IOException, InterruptedException {
         int userCount = 1000;
         int sessionsPerUser = 10; // 1000 * 10 = 10,000 sessions
         int minEventsPerSession = 5;
         int maxEventsPerSession = 20;
 
-        List<User> users = generateUsers(userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession);
+        long seed = 42;
+        long baseTimeMs = System.currentTimeMillis();
+        List<User> users = generateUsers(seed, baseTimeMs, userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession);
 
         // Using flatMap + filter to prune early and process API events of interest
         long startStream = System.nanoTime();
-        List<Event> apiEventsStream = users.stream()
-                .filter(User::isActive) // prune inactive users early
-                .flatMap(u -> u.getSessions().stream())
-                .filter(Session::isActive) // prune inactive sessions early
-                .flatMap(s -> s.getEvents().stream())
-                .filter(e -> e.getType() == EventType.API_CALL)
-                .filter(e -> e.getValue() > 0.5) // keep only high-value API calls
-                .collect(Collectors.toList());
+        List<Event> apiEventsStream = AnalyticsPipelines.stream(users, 0.5);
         long durationStreamMs = (System.nanoTime() - startStream) / 1_000_000;
 
         // Baseline: traditional nested loops
         long startLoop = System.nanoTime();
-        List<Event> apiEventsLoop = new ArrayList<>();
+        List<Event> apiEventsLoop = AnalyticsPipelines.loop(users, 0.5);
+        long durationLoopMs = (System.nanoTime() - startLoop) / 1_000_000;
+
+        System.out.println("Processed 10,000 sessions across " + userCount + " users.");
+        System.out.println("flatMap + filter: " + apiEventsStream.size() + " API events, took " + durationStreamMs + " ms");
+        System.out.println("nested loops:     " + apiEventsLoop.size() + " API events, took " + durationLoopMs + " ms");
+
+        // Sanity check: both approaches should yield same results
+        System.out.println("Results equal: " + (apiEventsStream.size() == apiEventsLoop.size()));
+
+        // Columnar store: same query over primitive arrays instead of the object graph
+        EventStore store = EventStore.of(users);
+        long startColumnar = System.nanoTime();
+        List<Event> apiEventsColumnar = store.query()
+                .activeUsers()
+                .activeSessions()
+                .type(EventType.API_CALL)
+                .valueGreaterThan(0.5)
+                .collect();
+        long durationColumnarMs = (System.nanoTime() - startColumnar) / 1_000_000;
+        long startCount = System.nanoTime();
+        long columnarCount = store.query().activeUsers().activeSessions()
+                .type(EventType.API_CALL).valueGreaterThan(0.5).count();
+        long durationCountMs = (System.nanoTime() - startCount) / 1_000_000;
+
+        System.out.println("columnar collect: " + apiEventsColumnar.size() + " API events, took " + durationColumnarMs + " ms");
+        System.out.println("columnar count:   " + columnarCount + " API events, took " + durationCountMs + " ms");
+        System.out.println("columnar store:   " + store.eventCount() + " events in " + store.eventColumnBytes() / 1024
+                + " KiB of event columns, " + store.payloadDictionarySize() + " distinct payloads");
+        System.out.println("Columnar equal: " + sameEvents(apiEventsLoop, apiEventsColumnar));
+
+        // Parallel: users.parallelStream() splits by user count; the event-balanced variant splits by event
+        // count underneath each user/session
+        long startUserParallel = System.nanoTime();
+        List<Event> apiEventsUserParallel = AnalyticsPipelines.parallelStream(users, 0.5);
+        long durationUserParallelMs = (System.nanoTime() - startUserParallel) / 1_000_000;
+        long startParallel = System.nanoTime();
+        List<Event> apiEventsParallel = AnalyticsPipelines.eventBalancedParallel(users, 0.5);
+        long durationParallelMs = (System.nanoTime() - startParallel) / 1_000_000;
+
+        System.out.println("parallelStream:          " + apiEventsUserParallel.size() + " API events, took "
+                + durationUserParallelMs + " ms");
+        System.out.println("event-balanced parallel: " + apiEventsParallel.size() + " API events, took "
+                + durationParallelMs + " ms on " + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println("Parallel equal: " + (sameEvents(apiEventsLoop, apiEventsParallel)
+                && sameEvents(apiEventsLoop, apiEventsUserParallel)));
+
+        // Windowed aggregation: consume events as they arrive (timestamps are out of order) and emit
+        // per-type aggregates on the watermark instead of collecting a list first
+        long windowMs = 60_000;
+        long latenessMs = 1_000_000; // generator spreads timestamps over the last 1,000,000 ms
+        Map<Long, Long> tumblingApiCalls = new HashMap<>();
+        long[] slidingTotal = new long[1];
+        WindowedAggregator tumbling = WindowedAggregator.tumbling(windowMs, latenessMs,
+                w -> tumblingApiCalls.put(w.getStart(), w.count(EventType.API_CALL)));
+        WindowedAggregator sliding = WindowedAggregator.sliding(5 * windowMs, windowMs, latenessMs,
+                w -> slidingTotal[0] += w.totalCount());
+        long startWindowed = System.nanoTime();
+        Map<Long, Long> expectedApiCalls = new HashMap<>();
         for (User u : users) {
-            if (u == null || !u.isActive()) continue;
             for (Session s : u.getSessions()) {
-                if (s == null || !s.isActive()) continue;
                 for (Event e : s.getEvents()) {
-                    if (e != null && e.getType() == EventType.API_CALL && e.getValue() > 0.5) {
-                        apiEventsLoop.add(e);
+                    tumbling.accept(e);
+                    sliding.accept(e);
+                    if (e.getType() == EventType.API_CALL) {
+                        expectedApiCalls.merge(Math.floorDiv(e.getTimestamp(), windowMs) * windowMs, 1L, Long::sum);
                     }
                 }
             }
         }
-        long durationLoopMs = (System.nanoTime() - startLoop) / 1_000_000;
+        tumbling.flush();
+        sliding.flush();
+        long durationWindowedMs = (System.nanoTime() - startWindowed) / 1_000_000;
+        tumblingApiCalls.values().removeIf(c -> c == 0L);
 
-        System.out.println("Processed 10,000 sessions across " + userCount + " users.");
-        System.out.println("flatMap + filter: " + apiEventsStream.size() + " API events, took " + durationStreamMs + " ms");
-        System.out.println("nested loops:     " + apiEventsLoop.size() + " API events, took " + durationLoopMs + " ms");
+        System.out.println("windowed: " + tumbling.emittedWindows() + " tumbling / " + sliding.emittedWindows()
+                + " sliding windows from " + tumbling.acceptedEvents() + " events (" + tumbling.droppedLateEvents()
+                + " late), " + tumbling.paneCapacity() + " panes retained, took " + durationWindowedMs + " ms");
+        System.out.println("Windowed equal: " + (tumblingApiCalls.equals(expectedApiCalls)
+                && slidingTotal[0] == 5 * sliding.acceptedEvents()));
 
-        // Sanity check: both approaches should yield same results
-        System.out.println("Results equal: " + (apiEventsStream.size() == apiEventsLoop.size()));
+        // Zone maps: skip users and sessions whose type bitmap or value bounds rule out a match
+        for (double threshold : new double[]{0.5, 0.95}) {
+            GraphQuery indexed = GraphQuery.over(users).activeUsers().activeSessions()
+                    .type(EventType.API_CALL).valueGreaterThan(threshold);
+            GraphQuery fullScan = GraphQuery.over(users).activeUsers().activeSessions()
+                    .type(EventType.API_CALL).valueGreaterThan(threshold).useZoneMaps(false);
+            long startIndexed = System.nanoTime();
+            List<Event> indexedEvents = indexed.collect();
+            long durationIndexedMs = (System.nanoTime() - startIndexed) / 1_000_000;
+            List<Event> fullScanEvents = fullScan.collect();
+
+            System.out.println("zone maps (value > " + threshold + "): " + indexedEvents.size() + " API events, scanned "
+                    + indexed.eventsScanned() + " of " + fullScan.eventsScanned() + " events, skipped "
+                    + indexed.sessionsSkipped() + " sessions / " + indexed.usersSkipped() + " users, took "
+                    + durationIndexedMs + " ms");
+            System.out.println("Zone maps equal: " + sameEvents(fullScanEvents, indexedEvents));
+        }
+
+        // Sketches: bounded-memory distinct users, value quantiles and top payloads, merged across
+        // parallel partitions; compared with the exact answers
+        Map<EventType, HyperLogLog> distinctUsers = users.parallelStream()
+                .filter(User::isActive)
+                .collect(Sketches.distinctUsersByType(12));
+        KllSketch valueQuantiles = EventStreams.parallelEvents(users)
+                .collect(Sketches.quantiles(200, Event::getValue));
+        SpaceSaving<String> topPayloads = EventStreams.parallelEvents(users)
+                .collect(Sketches.heavyHitters(16, Event::getPayload));
+
+        long exactApiUsers = users.stream()
+                .filter(User::isActive)
+                .filter(u -> u.getSessions().stream().anyMatch(sess -> sess.getZoneMap().containsType(EventType.API_CALL)))
+                .count();
+        double[] sortedValues = EventStreams.parallelEvents(users).mapToDouble(Event::getValue).sorted().toArray();
+        Map<String, Long> exactPayloads = EventStreams.parallelEvents(users)
+                .collect(Collectors.groupingBy(Event::getPayload, Collectors.counting()));
+        String exactTopPayload = exactPayloads.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+
+        System.out.println("sketches: distinct API_CALL users ~" + distinctUsers.get(EventType.API_CALL).estimate()
+                + " (exact " + exactApiUsers + "), value p50/p95/p99 ~"
+                + String.format("%.3f/%.3f/%.3f", valueQuantiles.quantile(0.5), valueQuantiles.quantile(0.95), valueQuantiles.quantile(0.99))
+                + " (exact " + String.format("%.3f/%.3f/%.3f", exactQuantile(sortedValues, 0.5), exactQuantile(sortedValues, 0.95), exactQuantile(sortedValues, 0.99))
+                + ") from " + valueQuantiles.retainedItems() + " retained values, top payloads " + topPayloads.topK(3));
+        System.out.println("Sketches within bounds: "
+                + (Math.abs(distinctUsers.get(EventType.API_CALL).estimate() - exactApiUsers) <= 0.05 * exactApiUsers
+                && Math.abs(valueQuantiles.quantile(0.95) - exactQuantile(sortedValues, 0.95)) <= 0.02
+                && topPayloads.topK(1).get(0).getItem().equals(exactTopPayload)));
+
+        // Payload dictionary: events carry an int code into the generator's intern table, so a string
+        // predicate runs once per distinct payload instead of once per event
+        int[] predicateCalls = new int[1];
+        Predicate<String> mentionsApi = p -> {
+            predicateCalls[0]++;
+            return p.contains("api");
+        };
+        long startPerEvent = System.nanoTime();
+        long perEventApiPayloads = EventStreams.parallelEvents(users)
+                .filter(e -> e.getPayload() != null && e.getPayload().contains("api"))
+                .count();
+        long durationPerEventMs = (System.nanoTime() - startPerEvent) / 1_000_000;
+        long startDictionary = System.nanoTime();
+        GraphQuery payloadQuery = GraphQuery.over(users).payloadMatches(mentionsApi);
+        long dictionaryApiPayloads = payloadQuery.count();
+        long durationDictionaryMs = (System.nanoTime() - startDictionary) / 1_000_000;
+        long columnarApiPayloads = store.query().payloadMatches(p -> p.contains("api")).count();
+        Set<String> payloadInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        EventStreams.parallelEvents(users).forEachOrdered(e -> payloadInstances.add(e.getPayload()));
+        Set<PayloadDictionary> payloadDictionaries = Collections.newSetFromMap(new IdentityHashMap<>());
+        users.forEach(u -> u.getSessions().forEach(s -> {
+            if (s.getPayloadDictionary() != null) payloadDictionaries.add(s.getPayloadDictionary());
+        }));
+
+        System.out.println("payload dictionary: " + payloadDictionaries.stream().mapToInt(PayloadDictionary::size).sum()
+                + " codes in " + payloadDictionaries.size() + " dictionary, "
+                + payloadInstances.size() + " payload String instances across " + store.eventCount()
+                + " events; contains(\"api\") evaluated " + predicateCalls[0] + " times, matched "
+                + dictionaryApiPayloads + " events (skipped " + payloadQuery.sessionsSkipped() + " sessions), took "
+                + durationDictionaryMs + " ms vs " + durationPerEventMs + " ms per event");
+        System.out.println("Payload dictionary equal: " + (dictionaryApiPayloads == perEventApiPayloads
+                && columnarApiPayloads == perEventApiPayloads));
+
+        // Scan kernels: the type/value predicate over the primitive columns, vectorized when
+        // jdk.incubator.vector is enabled; every kernel must agree with the scalar one row for row
+        ScanKernel bestKernel = ScanKernels.best();
+        ScanKernel scalarKernel = ScanKernels.scalar();
+        boolean kernelsEqual = kernelsAgree(scalarKernel, bestKernel, store);
+        long kernelCount = store.query().type(EventType.API_CALL).valueGreaterThan(0.5).kernel(bestKernel).count();
+        long scalarCount = store.query().type(EventType.API_CALL).valueGreaterThan(0.5).kernel(scalarKernel).count();
+        long objectCount = EventStreams.parallelEvents(users)
+                .filter(e -> e.getType() == EventType.API_CALL && e.getValue() > 0.5)
+                .count();
+        long durationKernelNs = averageNanos(200,
+                () -> store.query().type(EventType.API_CALL).valueGreaterThan(0.5).kernel(bestKernel).count());
+        long durationScalarNs = averageNanos(200,
+                () -> store.query().type(EventType.API_CALL).valueGreaterThan(0.5).kernel(scalarKernel).count());
+        long durationObjectsNs = averageNanos(20, () -> EventStreams.parallelEvents(users)
+                .filter(e -> e.getType() == EventType.API_CALL && e.getValue() > 0.5)
+                .count());
+
+        System.out.println("scan kernel " + bestKernel.name() + ": " + kernelCount + " API events > 0.5 in "
+                + durationKernelNs / 1_000 + " us vs scalar " + durationScalarNs / 1_000 + " us vs Event objects "
+                + durationObjectsNs / 1_000 + " us" + (ScanKernels.vectorized() ? "" : " (run with --add-modules jdk.incubator.vector to vectorize)"));
+        System.out.println("Scan kernels equal: " + (kernelsEqual && kernelCount == scalarCount && kernelCount == objectCount
+                && Arrays.equals(store.query().activeUsers().activeSessions().type(EventType.API_CALL).valueGreaterThan(0.5).selection(),
+                        store.query().activeUsers().activeSessions().type(EventType.API_CALL).valueGreaterThan(0.5).kernel(scalarKernel).selection())
+                && store.query().activeUsers().activeSessions().type(EventType.API_CALL).valueGreaterThan(0.5).count() == apiEventsLoop.size()));
+
+        // Live ingestion: several producer threads push the same events through lock-free rings into
+        // per-session buffers; the snapshot must rebuild every session in order
+        int producers = 4;
+        List<User> ingested;
+        IngestMetrics ingestMetrics;
+        long ingestNanos;
+        long ingestApiCalls;
+        try (IngestPipeline pipeline = IngestPipeline.builder().consumers(2).build()) {
+            ingestNanos = ingestConcurrently(pipeline, users, producers);
+            pipeline.awaitDrained();
+            ingested = pipeline.snapshot();
+            ingestMetrics = pipeline.metrics();
+            ingestApiCalls = pipeline.count(EventType.API_CALL);
+        }
+        Map<String, User> ingestedById = ingested.stream().collect(Collectors.toMap(User::getId, u -> u));
+        boolean ingestEqual = ingestMetrics.getConsumed() == store.eventCount()
+                && ingestApiCalls == store.query().type(EventType.API_CALL).count();
+        for (User u : users) {
+            List<Event> expected = u.getSessions().stream().flatMap(sess -> sess.getEvents().stream()).collect(Collectors.toList());
+            User live = ingestedById.get(u.getId());
+            List<Event> actual = live == null ? List.of()
+                    : live.getSessions().stream().flatMap(sess -> sess.getEvents().stream()).collect(Collectors.toList());
+            ingestEqual &= sameEvents(expected, actual);
+        }
+        IngestMetrics dropMetrics;
+        try (IngestPipeline lossy = IngestPipeline.builder().capacity(1024).batchSize(64)
+                .backpressure(IngestPipeline.Backpressure.DROP).build()) {
+            ingestConcurrently(lossy, users, producers);
+            lossy.awaitDrained();
+            dropMetrics = lossy.metrics();
+        }
+
+        System.out.println("ingest: " + ingestMetrics.getConsumed() + " events from " + producers + " producers in "
+                + ingestNanos / 1_000_000 + " ms (" + String.format("%.1f", ingestMetrics.getConsumed() * 1e3 / ingestNanos)
+                + " M events/s), " + ingestMetrics.getBatches() + " batches, mean/max latency "
+                + ingestMetrics.getMeanLatencyNanos() / 1_000 + "/" + ingestMetrics.getMaxLatencyNanos() / 1_000
+                + " us, " + ingestMetrics.getProducerWaits() + " producer waits; DROP with 1024 slots kept "
+                + dropMetrics.getAccepted() + " and dropped " + dropMetrics.getDropped());
+        System.out.println("Ingest equal: " + (ingestEqual
+                && dropMetrics.getAccepted() + dropMetrics.getDropped() == dropMetrics.getOffered()
+                && dropMetrics.getConsumed() == dropMetrics.getAccepted()));
+
+        // Sessionization: replay every event as one unordered (user, event) stream, each arriving up to
+        // the allowed lateness after its timestamp, and rebuild sessions from inactivity gaps
+        long gapMs = 10_000;
+        long sessionLatenessMs = 30_000;
+        Random arrivalRnd = new Random(seed);
+        List<long[]> arrivals = new ArrayList<>(); // {arrival time, user index, event index}
+        List<Event> arrivalEvents = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            for (Session sess : users.get(i).getSessions()) {
+                for (Event e : sess.getEvents()) {
+                    arrivals.add(new long[]{e.getTimestamp() + arrivalRnd.nextInt((int) sessionLatenessMs), i, arrivalEvents.size()});
+                    arrivalEvents.add(e);
+                }
+            }
+        }
+        arrivals.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<Session> sessionized = new ArrayList<>();
+        Sessionizer sessionizer = Sessionizer.create(gapMs, sessionLatenessMs, 1 << 16, key -> "U-" + key, sessionized::add);
+        long startSessionize = System.nanoTime();
+        for (long[] arrival : arrivals) {
+            sessionizer.accept(arrival[1], arrivalEvents.get((int) arrival[2]));
+        }
+        sessionizer.flush();
+        long durationSessionizeMs = (System.nanoTime() - startSessionize) / 1_000_000;
+        List<User> sessionizedUsers = Sessionizer.toUsers(sessionized);
+
+        Map<String, List<List<Event>>> expectedSessions = new HashMap<>();
+        for (User u : users) {
+            List<Event> timeline = u.getSessions().stream().flatMap(sess -> sess.getEvents().stream())
+                    .sorted(CANONICAL_ORDER).collect(Collectors.toList());
+            List<List<Event>> split = new ArrayList<>();
+            for (int i = 0; i < timeline.size(); i++) {
+                if (i == 0 || timeline.get(i).getTimestamp() - timeline.get(i - 1).getTimestamp() > gapMs) {
+                    split.add(new ArrayList<>());
+                }
+                split.get(split.size() - 1).add(timeline.get(i));
+            }
+            if (!split.isEmpty()) expectedSessions.put(u.getId(), split);
+        }
+        boolean sessionsEqual = sessionizer.lateEvents() == 0 && sessionizedUsers.size() == expectedSessions.size();
+        for (User u : sessionizedUsers) {
+            List<List<Event>> expected = expectedSessions.getOrDefault(u.getId(), List.of());
+            sessionsEqual &= expected.size() == u.getSessions().size();
+            for (int i = 0; sessionsEqual && i < expected.size(); i++) {
+                List<Event> actual = new ArrayList<>(u.getSessions().get(i).getEvents());
+                actual.sort(CANONICAL_ORDER);
+                sessionsEqual = sameEvents(expected.get(i), actual);
+            }
+        }
+
+        System.out.println("sessionization: " + sessionizer.acceptedEvents() + " unordered events -> "
+                + sessionizer.emittedSessions() + " sessions for " + sessionizedUsers.size() + " users in "
+                + durationSessionizeMs + " ms, peak " + sessionizer.peakLiveUsers() + " live users, "
+                + sessionizer.evictedUsers() + " evictions, " + sessionizer.lateEvents() + " late, "
+                + sessionizer.forcedFlushes() + " forced flushes");
+        System.out.println("Sessionization equal: " + (sessionsEqual
+                && GraphQuery.over(sessionizedUsers).type(EventType.API_CALL).count()
+                == store.query().type(EventType.API_CALL).count()));
+
+        // Generator: per-user SplittableRandom streams, so thread count and laziness never change the data
+        DataGenerator sameData = generator(seed, baseTimeMs, userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession);
+        List<User> sequentialUsers = sameData.users().collect(Collectors.toList());
+        boolean generatorEqual = sequentialUsers.size() == users.size();
+        for (int i = 0; generatorEqual && i < users.size(); i++) {
+            generatorEqual = sequentialUsers.get(i).getId().equals(users.get(i).getId())
+                    && sameEvents(users.get(i).getSessions().stream().flatMap(sess -> sess.getEvents().stream()).collect(Collectors.toList()),
+                    sequentialUsers.get(i).getSessions().stream().flatMap(sess -> sess.getEvents().stream()).collect(Collectors.toList()));
+        }
+        DataGenerator loadTest = DataGenerator.builder(seed)
+                .timeRange(baseTimeMs, 1_000_000)
+                .users(20_000, 10)
+                .eventsPerSession(1, 200)
+                .sessionSizeSkew(1.2)
+                .typeWeights(Map.of(EventType.API_CALL, 3.0, EventType.PURCHASE, 0.2))
+                .build();
+        int generatorThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ChecksumSink sequentialSink = new ChecksumSink();
+        long startSequentialGen = System.nanoTime();
+        loadTest.generate(sequentialSink);
+        long durationSequentialGenNs = System.nanoTime() - startSequentialGen;
+        ChecksumSink parallelSink = new ChecksumSink();
+        long startParallelGen = System.nanoTime();
+        loadTest.generate(parallelSink, generatorThreads);
+        long durationParallelGenNs = System.nanoTime() - startParallelGen;
+
+        System.out.println("generator: " + parallelSink.events + " skewed events (" + parallelSink.sessions + " sessions) streamed at "
+                + String.format("%.1f", parallelSink.events * 1e3 / durationSequentialGenNs) + " M events/s on 1 thread, "
+                + String.format("%.1f", parallelSink.events * 1e3 / durationParallelGenNs) + " M events/s on " + generatorThreads + " threads");
+        System.out.println("Generator equal: " + (generatorEqual && sequentialSink.hash == parallelSink.hash
+                && sequentialSink.events == parallelSink.events && sequentialSink.users == parallelSink.users));
+
+        // Funnels: every funnel advanced per event in one pass, per session and per user, parallel over users
+        Funnel checkout = Funnel.of("checkout", EventType.PAGE_VIEW, EventType.CLICK, EventType.PURCHASE);
+        Funnel apiSession = Funnel.of("api-session", EventType.LOGIN, EventType.API_CALL, EventType.LOGOUT);
+        FunnelEngine funnels = FunnelEngine.compile(checkout, apiSession);
+        FunnelResult sequentialFunnels = users.stream().collect(funnels.collector());
+        long startFunnels = System.nanoTime();
+        FunnelResult funnelResult = funnels.evaluate(users);
+        long durationFunnelsUs = (System.nanoTime() - startFunnels) / 1_000;
+        long startNaiveFunnels = System.nanoTime();
+        boolean funnelsEqual = funnelResult.sessions() == users.stream().mapToLong(u -> u.getSessions().size()).sum()
+                && funnelResult.users() == users.size()
+                && funnelResult.toString().equals(sequentialFunnels.toString());
+        for (int f = 0; f < funnelResult.funnelCount(); f++) {
+            Funnel funnel = funnelResult.getFunnel(f);
+            for (int k = 1; k <= funnel.stepCount(); k++) {
+                int step = k;
+                // Naive baseline: one stream pass per funnel step, rescanning each sequence from the start
+                long naiveSessions = users.stream()
+                        .flatMap(u -> u.getSessions().stream())
+                        .filter(sess -> funnelDepth(funnel, sess.getEvents()) >= step)
+                        .count();
+                long naiveUsers = users.stream()
+                        .filter(u -> funnelDepth(funnel, u.getSessions().stream()
+                                .flatMap(sess -> sess.getEvents().stream())
+                                .collect(Collectors.toList())) >= step)
+                        .count();
+                funnelsEqual &= naiveSessions == funnelResult.sessionsReaching(f, k)
+                        && naiveUsers == funnelResult.usersReaching(f, k);
+            }
+        }
+        long durationNaiveFunnelsUs = (System.nanoTime() - startNaiveFunnels) / 1_000;
+
+        System.out.println("funnels: " + funnelResult + " in " + durationFunnelsUs + " us (naive per-step passes: "
+                + durationNaiveFunnelsUs + " us); checkout conversion "
+                + String.format("%.1f%% of sessions, %.1f%% of users", 100 * funnelResult.sessionConversion(0), 100 * funnelResult.userConversion(0)));
+        System.out.println("Funnels equal: " + funnelsEqual);
+
+        // Binary event log: stream the generator straight to disk, then query the memory-mapped file
+        Path logFile = Files.createTempFile("analytics-", ".evlog");
+        try {
+            long startWrite = System.nanoTime();
+            try (EventLogWriter writer = EventLogWriter.create(logFile)) {
+                generate(seed, baseTimeMs, userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession, writer);
+            }
+            long durationWriteMs = (System.nanoTime() - startWrite) / 1_000_000;
+            try (EventLogReader log = EventLogReader.open(logFile)) {
+                long startMapped = System.nanoTime();
+                List<Event> apiEventsMapped = log.query()
+                        .activeUsers()
+                        .activeSessions()
+                        .type(EventType.API_CALL)
+                        .valueGreaterThan(0.5)
+                        .collect();
+                long durationMappedMs = (System.nanoTime() - startMapped) / 1_000_000;
+                long flatApiCalls = log.query().type(EventType.API_CALL).count();
+
+                System.out.println("event log: " + log.eventCount() + " events, " + Files.size(logFile) / 1024
+                        + " KiB on disk, written in " + durationWriteMs + " ms; mapped query: "
+                        + apiEventsMapped.size() + " API events, took " + durationMappedMs + " ms");
+                System.out.println("Event log equal: " + (sameEvents(apiEventsLoop, apiEventsMapped)
+                        && flatApiCalls == store.query().type(EventType.API_CALL).count()
+                        && log.query().payloadMatches(p -> p.contains("api")).count() == perEventApiPayloads));
+            }
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
     }
 
-    private static List<User> generateUsers(int userCount, int sessionsPerUser, int minEventsPerSession, int maxEventsPerSession) {
-        Random rnd = new Random(42); // deterministic for repeatable runs
-        List<User> users = new ArrayList<>(userCount);
-        for (int i = 0; i < userCount; i++) {
-            boolean userActive = rnd.nextDouble() > 0.1; // ~90% active
-            List<Session> sessions = new ArrayList<>(sessionsPerUser);
-            for (int s = 0; s < sessionsPerUser; s++) {
-                boolean sessionActive = rnd.nextDouble() > 0.2; // ~80% active
-                int eventsCount = ThreadLocalRandom.current().nextInt(minEventsPerSession, maxEventsPerSession + 1);
-                List<Event> events = new ArrayList<>(eventsCount);
-                for (int e = 0; e < eventsCount; e++) {
-                    EventType type = randomEventType(rnd);
-                    double value = rnd.nextDouble();
-                    long ts = System.currentTimeMillis() - rnd.nextInt(1_000_000);
-                    String payload = type == EventType.API_CALL ? "api:/v1/resource" : "ui:" + type.name().toLowerCase();
-                    events.add(new Event(ts, type, value, payload));
+    // Compares two kernels on count, sum and selection over edge-case ranges, type masks, bounds and row filters
+    private static boolean kernelsAgree(ScanKernel expected, ScanKernel actual, EventStore store) {
+        int rows = store.eventCount();
+        int apiMask = 1 << EventType.API_CALL.ordinal();
+        int[] typeMasks = {apiMask, apiMask | 1 << EventType.PURCHASE.ordinal()};
+        double[][] bounds = {{0.5, Double.POSITIVE_INFINITY}, {0.25, 0.75}};
+        long[][] rowFilters = {null, store.liveRows(true, true)};
+        int[][] ranges = {{0, rows}, {3, rows - 5}, {61, 200}, {7, 9}};
+        for (int[] range : ranges) {
+            for (long[] rowFilter : rowFilters) {
+                for (int mask : typeMasks) {
+                    for (double[] b : bounds) {
+                        long[] expectedBits = new long[(rows + 63) >>> 6];
+                        long[] actualBits = new long[(rows + 63) >>> 6];
+                        long expectedCount = expected.select(store.types, store.values, range[0], range[1], mask, b[0], b[1], rowFilter, expectedBits);
+                        long actualCount = actual.select(store.types, store.values, range[0], range[1], mask, b[0], b[1], rowFilter, actualBits);
+                        double expectedSum = expected.sum(store.types, store.values, range[0], range[1], mask, b[0], b[1], rowFilter);
+                        double actualSum = actual.sum(store.types, store.values, range[0], range[1], mask, b[0], b[1], rowFilter);
+                        if (expectedCount != actualCount || !Arrays.equals(expectedBits, actualBits)
+                                || actual.count(store.types, store.values, range[0], range[1], mask, b[0], b[1], rowFilter) != expectedCount
+                                || Math.abs(expectedSum - actualSum) > 1e-9 * Math.max(1.0, Math.abs(expectedSum))) {
+                            return false;
+                        }
+                    }
                 }
-                sessions.add(new Session("S-" + i + "-" + s, "U-" + i, sessionActive, events));
             }
-            users.add(new User("U-" + i, "User" + i, userActive, sessions));
         }
-        return users;
+        return true;
+    }
+
+    // Mean time per run after the same number of untimed warm-up runs, so the JIT has compiled the scan
+    private static long averageNanos(int repeats, LongSupplier run) {
+        long sink = 0;
+        for (int i = 0; i < repeats; i++) {
+            sink += run.getAsLong();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            sink += run.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        return sink == Long.MIN_VALUE ? 0 : elapsed / repeats;
+    }
+
+    // Replays users round-robin across producer threads, each user's events from a single thread
+    private static long ingestConcurrently(IngestPipeline pipeline, List<User> users, int producers) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            int first = p;
+            Thread t = new Thread(() -> {
+                for (int i = first; i < users.size(); i += producers) {
+                    User u = users.get(i);
+                    for (Session sess : u.getSessions()) {
+                        for (Event e : sess.getEvents()) {
+                            pipeline.offer(u.getId(), sess.getSessionId(), e);
+                        }
+                    }
+                }
+            }, "ingest-producer-" + p);
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        pipeline.awaitDrained();
+        return System.nanoTime() - start;
     }
 
-    private static EventType randomEventType(Random rnd) {
-        // Bias towards non-API events to simulate typical UI-heavy traffic
-        List<EventType> pool = Arrays.asList(
-                EventType.PAGE_VIEW,
-                EventType.CLICK,
-                EventType.LOGIN,
-                EventType.LOGOUT,
-                EventType.PURCHASE,
-                EventType.API_CALL
-        );
-        return pool.get(rnd.nextInt(pool.size()));
+    // Reference funnel matcher: walks the events once with a step pointer
+    private static int funnelDepth(Funnel funnel, List<Event> events) {
+        int depth = 0;
+        for (Event e : events) {
+            if (depth == funnel.stepCount()) break;
+            if (e != null && e.getType() == funnel.step(depth)) depth++;
+        }
+        return depth;
+    }
+
+    private static double exactQuantile(double[] sorted, double q) {
+        return sorted[Math.max(0, (int) Math.ceil(q * sorted.length) - 1)];
+    }
+
+    private static boolean sameEvents(List<Event> expected, List<Event> actual) {
+        if (expected.size() != actual.size()) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            Event a = expected.get(i);
+            Event b = actual.get(i);
+            if (a.getTimestamp() != b.getTimestamp() || a.getType() != b.getType()
+                    || Double.compare(a.getValue(), b.getValue()) != 0
+                    || !java.util.Objects.equals(a.getPayload(), b.getPayload())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Public so the JMH module can build the same dataset; see DataGenerator for how draws are seeded
+    public static List<User> generateUsers(long seed, int userCount, int sessionsPerUser, int minEventsPerSession, int maxEventsPerSession) {
+        return generateUsers(seed, System.currentTimeMillis(), userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession);
+    }
+
+    public static List<User> generateUsers(long seed, long baseTimeMs, int userCount, int sessionsPerUser, int minEventsPerSession, int maxEventsPerSession) {
+        return generator(seed, baseTimeMs, userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession).generateUsers();
+    }
+
+    // Streams the dataset depth-first into any sink; same seed and base time give the same rows
+    public static void generate(long seed, long baseTimeMs, int userCount, int sessionsPerUser, int minEventsPerSession, int maxEventsPerSession, EventSink sink) {
+        generator(seed, baseTimeMs, userCount, sessionsPerUser, minEventsPerSession, maxEventsPerSession).generate(sink);
+    }
+
+    private static DataGenerator generator(long seed, long baseTimeMs, int userCount, int sessionsPerUser, int minEventsPerSession, int maxEventsPerSession) {
+        return DataGenerator.builder(seed)
+                .timeRange(baseTimeMs, 1_000_000)
+                .users(userCount, sessionsPerUser)
+                .eventsPerSession(minEventsPerSession, maxEventsPerSession)
+                .build();
+    }
+
+    // Order-sensitive fingerprint of everything a generator emits, without keeping any of it
+    private static final class ChecksumSink implements EventSink {
+        long users;
+        long sessions;
+        long events;
+        long hash = 17;
+
+        @Override
+        public void user(String userId, String name, boolean active) {
+            users++;
+            hash = hash * 31 + userId.hashCode() + (active ? 1 : 0);
+        }
+
+        @Override
+        public void session(String sessionId, String userId, boolean active) {
+            sessions++;
+            hash = hash * 31 + sessionId.hashCode() + (active ? 1 : 0);
+        }
+
+        @Override
+        public void event(long timestamp, EventType type, double value, String payload) {
+            events++;
+            hash = hash * 31 + Long.hashCode(timestamp) + type.ordinal() + Double.hashCode(value) + payload.hashCode();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// The "active users -> active sessions -> API_CALL with value > threshold" query from AnalyticsDemo, one
+// public static method per execution strategy. analytic-app-bench binds to these by name, so keep the
+// signatures stable when changing the bodies.
+public final class AnalyticsPipelines {
+    private AnalyticsPipelines() {}
+
+    public static List<Event> stream(List<User> users, double threshold) {
+        return users.stream()
+                .filter(User::isActive)
+                .flatMap(u -> u.getSessions().stream())
+                .filter(Session::isActive)
+                .flatMap(s -> s.getEvents().stream())
+                .filter(e -> e.getType() == EventType.API_CALL)
+                .filter(e -> e.getValue() > threshold)
+                .collect(Collectors.toList());
+    }
+
+    public static List<Event> parallelStream(List<User> users, double threshold) {
+        return users.parallelStream()
+                .filter(User::isActive)
+                .flatMap(u -> u.getSessions().stream())
+                .filter(Session::isActive)
+                .flatMap(s -> s.getEvents().stream())
+                .filter(e -> e.getType() == EventType.API_CALL)
+                .filter(e -> e.getValue() > threshold)
+                .collect(Collectors.toList());
+    }
+
+    public static List<Event> eventBalancedParallel(List<User> users, double threshold) {
+        return EventStreams.parallelEvents(users, User::isActive, Session::isActive)
+                .filter(e -> e.getType() == EventType.API_CALL)
+                .filter(e -> e.getValue() > threshold)
+                .collect(Collectors.toList());
+    }
+
+    public static List<Event> loop(List<User> users, double threshold) {
+        List<Event> out = new ArrayList<>();
+        for (User u : users) {
+            if (u == null || !u.isActive()) continue;
+            for (Session s : u.getSessions()) {
+                if (s == null || !s.isActive()) continue;
+                for (Event e : s.getEvents()) {
+                    if (e != null && e.getType() == EventType.API_CALL && e.getValue() > threshold) {
+                        out.add(e);
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    public static List<Event> zoneMapped(List<User> users, double threshold) {
+        return GraphQuery.over(users)
+                .activeUsers()
+                .activeSessions()
+                .type(EventType.API_CALL)
+                .valueGreaterThan(threshold)
+                .collect();
+    }
+
+    // Uses ScanKernels.best(), i.e. the vector kernel when jdk.incubator.vector is enabled
+    public static long columnarCount(EventStore store, double threshold) {
+        return columnarQuery(store, threshold).count();
+    }
+
+    public static long columnarScalarCount(EventStore store, double threshold) {
+        return columnarQuery(store, threshold).kernel(ScanKernels.scalar()).count();
+    }
+
+    public static double columnarSum(EventStore store, double threshold) {
+        return columnarQuery(store, threshold).sumValues();
+    }
+
+    public static double columnarScalarSum(EventStore store, double threshold) {
+        return columnarQuery(store, threshold).kernel(ScanKernels.scalar()).sumValues();
+    }
+
+    private static EventQuery columnarQuery(EventStore store, double threshold) {
+        return store.query()
+                .activeUsers()
+                .activeSessions()
+                .type(EventType.API_CALL)
+                .valueGreaterThan(threshold);
+    }
+}
@@ -0,0 +1,355 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Synthetic User -> Session -> Event datasets for demos and load tests. Every user draws from its own
+// SplittableRandom seeded from (seed, user index), so a user's sessions and events are the same no
+// matter which thread generates them or in what order; sequential, parallel and streaming output are
+// identical for the same configuration. Event types follow configurable weights, and session sizes
+// are uniform in [min, max] or, with a skew, bounded-Pareto so a few sessions are much longer.
+public final class DataGenerator {
+    private static final EventType[] TYPES = EventType.values();
+    // One payload per type, shared by every generated event
+    private static final String[] PAYLOADS = Arrays.stream(TYPES)
+            .map(t -> t == EventType.API_CALL ? "api:/v1/resource" : "ui:" + t.name().toLowerCase())
+            .toArray(String[]::new);
+    private static final int USERS_PER_CHUNK = 256;
+
+    private final long seed;
+    private final long baseTimeMs;
+    private final long timeSpanMs;
+    private final int userCount;
+    private final int sessionsPerUser;
+    private final int minEventsPerSession;
+    private final int maxEventsPerSession;
+    private final double sessionSizeSkew;
+    private final double activeUserRatio;
+    private final double activeSessionRatio;
+    private final double[] cumulativeTypeWeights;
+    // Shared by every ObjectGraphSink this generator builds users into, so all its users share codes
+    private final PayloadDictionary payloadDictionary = new PayloadDictionary(PayloadDictionary.DEFAULT_CAPACITY);
+
+    private DataGenerator(Builder b) {
+        this.seed = b.seed;
+        this.baseTimeMs = b.baseTimeMs;
+        this.timeSpanMs = b.timeSpanMs;
+        this.userCount = b.userCount;
+        this.sessionsPerUser = b.sessionsPerUser;
+        this.minEventsPerSession = b.minEventsPerSession;
+        this.maxEventsPerSession = b.maxEventsPerSession;
+        this.sessionSizeSkew = b.sessionSizeSkew;
+        this.activeUserRatio = b.activeUserRatio;
+        this.activeSessionRatio = b.activeSessionRatio;
+        this.cumulativeTypeWeights = new double[TYPES.length];
+        double total = 0;
+        for (EventType t : TYPES) {
+            total += b.typeWeights.getOrDefault(t, 0.0);
+            cumulativeTypeWeights[t.ordinal()] = total;
+        }
+        for (int i = 0; i < cumulativeTypeWeights.length; i++) {
+            cumulativeTypeWeights[i] /= total;
+        }
+    }
+
+    public static Builder builder(long seed) {
+        return new Builder(seed);
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    // Payload dictionary of the users built by user(), users() and generateUsers()
+    public PayloadDictionary payloadDictionary() {
+        return payloadDictionary;
+    }
+
+    // Streams the whole dataset depth-first into the sink on the calling thread
+    public void generate(EventSink sink) {
+        for (int i = 0; i < userCount; i++) {
+            emitUser(i, sink);
+        }
+    }
+
+    // Same output and order as generate(sink), with users generated on the given number of threads.
+    // Chunks of users are buffered off-thread and replayed in order, at most 2 * threads chunks at a
+    // time, so memory stays bounded however large the dataset is. The sink is only called from the
+    // calling thread.
+    public void generate(EventSink sink, int threads) throws InterruptedException {
+        if (threads <= 1) {
+            generate(sink);
+            return;
+        }
+        int chunks = (userCount + USERS_PER_CHUNK - 1) / USERS_PER_CHUNK;
+        int window = 2 * threads;
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "data-generator");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<ChunkBuffer>> inFlight = new ArrayList<>(window);
+            int submitted = 0;
+            for (int next = 0; next < chunks; next++) {
+                while (submitted < chunks && submitted < next + window) {
+                    int from = submitted * USERS_PER_CHUNK;
+                    int to = Math.min(userCount, from + USERS_PER_CHUNK);
+                    inFlight.add(pool.submit(() -> bufferUsers(from, to)));
+                    submitted++;
+                }
+                inFlight.remove(0).get().replay(sink);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Lazy: each User is built when the stream pulls it; .parallel() yields the same users
+    public Stream<User> users() {
+        return IntStream.range(0, userCount).mapToObj(this::user);
+    }
+
+    // Materializes every user in parallel on the common pool, in index order
+    public List<User> generateUsers() {
+        return users().parallel().toList();
+    }
+
+    public User user(int index) {
+        if (index < 0 || index >= userCount) {
+            throw new IndexOutOfBoundsException("User index " + index + " out of [0, " + userCount + ")");
+        }
+        ObjectGraphSink graph = new ObjectGraphSink(payloadDictionary);
+        emitUser(index, graph);
+        return graph.users().get(0);
+    }
+
+    private ChunkBuffer bufferUsers(int from, int to) {
+        ChunkBuffer buffer = new ChunkBuffer();
+        for (int i = from; i < to; i++) {
+            emitUser(i, buffer);
+        }
+        return buffer;
+    }
+
+    private void emitUser(int index, EventSink sink) {
+        SplittableRandom rnd = new SplittableRandom(mix(seed + mix(index)));
+        String userId = "U-" + index;
+        sink.user(userId, "User" + index, rnd.nextDouble() < activeUserRatio);
+        for (int s = 0; s < sessionsPerUser; s++) {
+            boolean sessionActive = rnd.nextDouble() < activeSessionRatio;
+            int eventsCount = sessionSize(rnd);
+            sink.session("S-" + index + "-" + s, userId, sessionActive);
+            for (int e = 0; e < eventsCount; e++) {
+                EventType type = eventType(rnd);
+                double value = rnd.nextDouble();
+                long ts = baseTimeMs - rnd.nextLong(timeSpanMs);
+                sink.event(ts, type, value, PAYLOADS[type.ordinal()]);
+            }
+        }
+    }
+
+    private int sessionSize(SplittableRandom rnd) {
+        if (sessionSizeSkew <= 0 || minEventsPerSession == maxEventsPerSession) {
+            return rnd.nextInt(minEventsPerSession, maxEventsPerSession + 1);
+        }
+        // Bounded Pareto with shape = skew on [min + 1, max + 2), shifted back by one so min may be 0
+        double lo = minEventsPerSession + 1.0;
+        double hi = maxEventsPerSession + 2.0;
+        double ratio = Math.pow(lo / hi, sessionSizeSkew);
+        double x = lo / Math.pow(1.0 - rnd.nextDouble() * (1.0 - ratio), 1.0 / sessionSizeSkew);
+        return Math.min(maxEventsPerSession, (int) x - 1);
+    }
+
+    private EventType eventType(SplittableRandom rnd) {
+        double u = rnd.nextDouble();
+        for (int i = 0; i < cumulativeTypeWeights.length - 1; i++) {
+            if (u < cumulativeTypeWeights[i]) return TYPES[i];
+        }
+        return TYPES[TYPES.length - 1];
+    }
+
+    // MurmurHash3 finalizer: spreads nearby (seed, index) pairs into unrelated generator seeds
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    // Records one chunk of sink calls in primitive arrays so it can be replayed in order later
+    private static final class ChunkBuffer implements EventSink {
+        private String[] userIds = new String[USERS_PER_CHUNK];
+        private String[] userNames = new String[USERS_PER_CHUNK];
+        private boolean[] userActive = new boolean[USERS_PER_CHUNK];
+        private int[] userSessionEnd = new int[USERS_PER_CHUNK];
+        private int userCount;
+
+        private String[] sessionIds = new String[64];
+        private boolean[] sessionActive = new boolean[64];
+        private int[] sessionEventEnd = new int[64];
+        private int sessionCount;
+
+        private long[] timestamps = new long[1024];
+        private byte[] types = new byte[1024];
+        private double[] values = new double[1024];
+        private int eventCount;
+
+        @Override
+        public void user(String userId, String name, boolean active) {
+            if (userCount == userIds.length) {
+                int cap = userCount * 2;
+                userIds = Arrays.copyOf(userIds, cap);
+                userNames = Arrays.copyOf(userNames, cap);
+                userActive = Arrays.copyOf(userActive, cap);
+                userSessionEnd = Arrays.copyOf(userSessionEnd, cap);
+            }
+            userIds[userCount] = userId;
+            userNames[userCount] = name;
+            userActive[userCount] = active;
+            userSessionEnd[userCount] = sessionCount;
+            userCount++;
+        }
+
+        @Override
+        public void session(String sessionId, String userId, boolean active) {
+            if (sessionCount == sessionIds.length) {
+                int cap = sessionCount * 2;
+                sessionIds = Arrays.copyOf(sessionIds, cap);
+                sessionActive = Arrays.copyOf(sessionActive, cap);
+                sessionEventEnd = Arrays.copyOf(sessionEventEnd, cap);
+            }
+            sessionIds[sessionCount] = sessionId;
+            sessionActive[sessionCount] = active;
+            sessionEventEnd[sessionCount] = eventCount;
+            sessionCount++;
+            userSessionEnd[userCount - 1] = sessionCount;
+        }
+
+        // Payloads are always PAYLOADS[type], so only the type is stored
+        @Override
+        public void event(long timestamp, EventType type, double value, String payload) {
+            if (eventCount == timestamps.length) {
+                int cap = eventCount * 2;
+                timestamps = Arrays.copyOf(timestamps, cap);
+                types = Arrays.copyOf(types, cap);
+                values = Arrays.copyOf(values, cap);
+            }
+            timestamps[eventCount] = timestamp;
+            types[eventCount] = (byte) type.ordinal();
+            values[eventCount] = value;
+            eventCount++;
+            sessionEventEnd[sessionCount - 1] = eventCount;
+        }
+
+        void replay(EventSink sink) {
+            int s = 0;
+            int e = 0;
+            for (int u = 0; u < userCount; u++) {
+                sink.user(userIds[u], userNames[u], userActive[u]);
+                for (; s < userSessionEnd[u]; s++) {
+                    sink.session(sessionIds[s], userIds[u], sessionActive[s]);
+                    for (; e < sessionEventEnd[s]; e++) {
+                        sink.event(timestamps[e], TYPES[types[e]], values[e], PAYLOADS[types[e]]);
+                    }
+                }
+            }
+        }
+    }
+
+    public static final class Builder {
+        private final long seed;
+        private long baseTimeMs = System.currentTimeMillis();
+        private long timeSpanMs = 1_000_000;
+        private int userCount = 1000;
+        private int sessionsPerUser = 10;
+        private int minEventsPerSession = 5;
+        private int maxEventsPerSession = 20;
+        private double sessionSizeSkew;
+        private double activeUserRatio = 0.9;
+        private double activeSessionRatio = 0.8;
+        private final Map<EventType, Double> typeWeights = new EnumMap<>(EventType.class);
+
+        private Builder(long seed) {
+            this.seed = seed;
+            for (EventType t : TYPES) {
+                typeWeights.put(t, 1.0);
+            }
+        }
+
+        // Timestamps are drawn from (baseTimeMs - timeSpanMs, baseTimeMs]
+        public Builder timeRange(long baseTimeMs, long timeSpanMs) {
+            if (timeSpanMs <= 0) {
+                throw new IllegalArgumentException("Time span must be > 0, got " + timeSpanMs);
+            }
+            this.baseTimeMs = baseTimeMs;
+            this.timeSpanMs = timeSpanMs;
+            return this;
+        }
+
+        public Builder users(int userCount, int sessionsPerUser) {
+            if (userCount < 0 || sessionsPerUser < 0) {
+                throw new IllegalArgumentException("User and session counts must be >= 0, got "
+                        + userCount + ", " + sessionsPerUser);
+            }
+            this.userCount = userCount;
+            this.sessionsPerUser = sessionsPerUser;
+            return this;
+        }
+
+        public Builder eventsPerSession(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("Require 0 <= min <= max, got " + min + ", " + max);
+            }
+            this.minEventsPerSession = min;
+            this.maxEventsPerSession = max;
+            return this;
+        }
+
+        // 0 keeps session sizes uniform; a positive Pareto shape skews them, smaller meaning heavier tail
+        public Builder sessionSizeSkew(double skew) {
+            if (!(skew >= 0)) {
+                throw new IllegalArgumentException("Session size skew must be >= 0, got " + skew);
+            }
+            this.sessionSizeSkew = skew;
+            return this;
+        }
+
+        public Builder activeRatios(double users, double sessions) {
+            if (!(users >= 0 && users <= 1 && sessions >= 0 && sessions <= 1)) {
+                throw new IllegalArgumentException("Active ratios must be in [0, 1], got " + users + ", " + sessions);
+            }
+            this.activeUserRatio = users;
+            this.activeSessionRatio = sessions;
+            return this;
+        }
+
+        // Relative weights; types left out keep their current weight (1.0 by default)
+        public Builder typeWeights(Map<EventType, Double> weights) {
+            for (Map.Entry<EventType, Double> e : weights.entrySet()) {
+                if (e.getKey() == null || e.getValue() == null || !(e.getValue() >= 0) || Double.isInfinite(e.getValue())) {
+                    throw new IllegalArgumentException("Invalid type weight " + e);
+                }
+                typeWeights.put(e.getKey(), e.getValue());
+            }
+            return this;
+        }
+
+        public DataGenerator build() {
+            double total = typeWeights.values().stream().mapToDouble(Double::doubleValue).sum();
+            if (total <= 0) {
+                throw new IllegalArgumentException("At least one event type needs a positive weight");
+            }
+            return new DataGenerator(this);
+        }
+    }
+}
@@ -2,13 +2,33 @@ public class Event {
     private final long timestamp;
     private final EventType type;
     private final double value;
+    // For coded events the dictionary's canonical instance, shared by every event with the same code
     private final String payload;
+    private final PayloadDictionary payloadDictionary;
+    private final int payloadCode;
 
     public Event(long timestamp, EventType type, double value, String payload) {
         this.timestamp = timestamp;
         this.type = type;
         this.value = value;
         this.payload = payload;
+        this.payloadDictionary = null;
+        this.payloadCode = PayloadDictionary.NO_CODE;
+    }
+
+    // Encodes the payload in the ingest's dictionary; when it cannot be coded (null, or the dictionary
+    // is full) the event keeps the plain string instead
+    public Event(long timestamp, EventType type, double value, String payload, PayloadDictionary dictionary) {
+        if (dictionary == null) {
+            throw new IllegalArgumentException("Payload dictionary must not be null");
+        }
+        int code = dictionary.encode(payload);
+        this.timestamp = timestamp;
+        this.type = type;
+        this.value = value;
+        this.payload = code == PayloadDictionary.NO_CODE ? payload : dictionary.decode(code);
+        this.payloadDictionary = code == PayloadDictionary.NO_CODE ? null : dictionary;
+        this.payloadCode = code;
     }
 
     public long getTimestamp() {
@@ -27,6 +47,16 @@ public class Event {
         return payload;
     }
 
+    // The dictionary getPayloadCode() refers to, or null for a plain-string event
+    public PayloadDictionary getPayloadDictionary() {
+        return payloadDictionary;
+    }
+
+    // PayloadDictionary.NO_CODE when the event carries a plain string (or no payload)
+    public int getPayloadCode() {
+        return payloadCode;
+    }
+
     @Override
     public String toString() {
         return "Event{" +
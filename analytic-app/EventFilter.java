@@ -0,0 +1,79 @@
+import java.util.function.Predicate;
+
+// Row predicate shared by the columnar, memory-mapped and object-graph scans: active-user/active-session
+// pruning, an EventType ordinal mask, exclusive value bounds, a [from, to) timestamp range and a payload
+// predicate. Mutable; each query owns its own instance.
+final class EventFilter {
+    static final int ALL_TYPES = (1 << EventType.values().length) - 1;
+
+    boolean activeUsersOnly;
+    boolean activeSessionsOnly;
+    int typeMask = ALL_TYPES;
+    boolean hasMinValue;
+    double minValueExclusive;
+    boolean hasMaxValue;
+    double maxValueExclusive;
+    boolean hasTimeRange;
+    long fromTimestamp = Long.MIN_VALUE;
+    long toTimestampExclusive = Long.MAX_VALUE;
+    // Evaluated per payload dictionary entry, never per row; null payloads never match
+    Predicate<String> payloadPredicate;
+
+    // Restricts to the given types; repeated calls intersect
+    void types(EventType... types) {
+        int mask = 0;
+        for (EventType t : types) {
+            if (t != null) mask |= 1 << t.ordinal();
+        }
+        typeMask &= mask;
+    }
+
+    void valueGreaterThan(double threshold) {
+        minValueExclusive = hasMinValue ? Math.max(minValueExclusive, threshold) : threshold;
+        hasMinValue = true;
+    }
+
+    void valueLessThan(double threshold) {
+        maxValueExclusive = hasMaxValue ? Math.min(maxValueExclusive, threshold) : threshold;
+        hasMaxValue = true;
+    }
+
+    // Repeated calls intersect
+    void timestampBetween(long fromInclusive, long toExclusive) {
+        fromTimestamp = Math.max(fromTimestamp, fromInclusive);
+        toTimestampExclusive = Math.min(toTimestampExclusive, toExclusive);
+        hasTimeRange = true;
+    }
+
+    // Repeated calls intersect
+    void payloadMatches(Predicate<String> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Payload predicate must not be null");
+        }
+        payloadPredicate = payloadPredicate == null ? predicate : payloadPredicate.and(predicate);
+    }
+
+    // Per-code match flags for a scan's payload dictionary, or null when there is no payload predicate
+    boolean[] payloadMask(String[] dictionary) {
+        if (payloadPredicate == null) return null;
+        boolean[] mask = new boolean[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            mask[code] = dictionary[code] != null && payloadPredicate.test(dictionary[code]);
+        }
+        return mask;
+    }
+
+    boolean matchesNothing() {
+        return typeMask == 0 || (hasTimeRange && fromTimestamp >= toTimestampExclusive);
+    }
+
+    boolean matchesTime(long timestamp) {
+        return !hasTimeRange || (timestamp >= fromTimestamp && timestamp < toTimestampExclusive);
+    }
+
+    boolean matches(int typeOrdinal, double value) {
+        if ((typeMask & (1 << typeOrdinal)) == 0) return false;
+        if (hasMinValue && !(value > minValueExclusive)) return false;
+        return !hasMaxValue || value < maxValueExclusive;
+    }
+}
@@ -0,0 +1,56 @@
+import java.nio.ByteOrder;
+
+// On-disk layout of an event log (version 1). All values little-endian.
+//
+//   header    64 bytes    magic, version, record size, counts and section offsets (see HEADER_* below)
+//   events    24 bytes/event    long timestamp, double value, int payloadRef, byte type ordinal, 3 pad
+//   sessions  24 bytes/session  long firstEvent, int eventCount, int sessionIdRef, int userIdRef, byte active, 3 pad
+//   users     24 bytes/user     int firstSession, int sessionCount, int userIdRef, int nameRef, byte active, 7 pad
+//   payloads  string table      int count, 4 pad, long offsets[count + 1], UTF-8 bytes
+//   ids       string table      same layout; user ids, names and session ids
+//
+// Refs index a string table; NO_REF marks a null string. Events of session s are
+// [firstEvent, firstEvent + eventCount); sessions of user u are [firstSession, firstSession + sessionCount).
+final class EventLogFormat {
+    static final int MAGIC = 0x4C564541; // "AEVL"
+    static final short VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int NO_REF = -1;
+
+    static final int HEADER_BYTES = 64;
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_BYTES = 6;
+    static final int HEADER_EVENT_COUNT = 8;
+    static final int HEADER_SESSION_COUNT = 16;
+    static final int HEADER_USER_COUNT = 20;
+    static final int HEADER_EVENTS_OFFSET = 24;
+    static final int HEADER_SESSIONS_OFFSET = 32;
+    static final int HEADER_USERS_OFFSET = 40;
+    static final int HEADER_PAYLOADS_OFFSET = 48;
+    static final int HEADER_IDS_OFFSET = 56;
+
+    static final int RECORD_BYTES = 24;
+
+    static final int EVENT_TIMESTAMP = 0;
+    static final int EVENT_VALUE = 8;
+    static final int EVENT_PAYLOAD = 16;
+    static final int EVENT_TYPE = 20;
+
+    static final int SESSION_FIRST_EVENT = 0;
+    static final int SESSION_EVENT_COUNT = 8;
+    static final int SESSION_ID = 12;
+    static final int SESSION_USER_ID = 16;
+    static final int SESSION_ACTIVE = 20;
+
+    static final int USER_FIRST_SESSION = 0;
+    static final int USER_SESSION_COUNT = 4;
+    static final int USER_ID = 8;
+    static final int USER_NAME = 12;
+    static final int USER_ACTIVE = 16;
+
+    // Records per mapped chunk: a power of two so addressing is shift/mask, and chunk bytes stay below 2 GiB
+    static final int CHUNK_SHIFT = 26;
+
+    private EventLogFormat() {}
+}
@@ -0,0 +1,121 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.LongConsumer;
+
+// Filter/aggregate API over a memory-mapped EventLogReader, with the same predicates as EventQuery.
+// Rows are evaluated in place in the mapping; only collect() creates Event objects. Without user or
+// session predicates the scan is a flat pass over the event section, chunk by chunk.
+public final class EventLogQuery {
+    private final EventLogReader log;
+    private final EventFilter filter = new EventFilter();
+
+    EventLogQuery(EventLogReader log) {
+        this.log = log;
+    }
+
+    public EventLogQuery activeUsers() {
+        filter.activeUsersOnly = true;
+        return this;
+    }
+
+    public EventLogQuery activeSessions() {
+        filter.activeSessionsOnly = true;
+        return this;
+    }
+
+    // Restricts to the given types; repeated calls intersect
+    public EventLogQuery types(EventType... types) {
+        filter.types(types);
+        return this;
+    }
+
+    public EventLogQuery type(EventType type) {
+        return types(type);
+    }
+
+    public EventLogQuery valueGreaterThan(double threshold) {
+        filter.valueGreaterThan(threshold);
+        return this;
+    }
+
+    public EventLogQuery valueLessThan(double threshold) {
+        filter.valueLessThan(threshold);
+        return this;
+    }
+
+    // Keeps events with fromInclusive <= timestamp < toExclusive; repeated calls intersect
+    public EventLogQuery timestampBetween(long fromInclusive, long toExclusive) {
+        filter.timestampBetween(fromInclusive, toExclusive);
+        return this;
+    }
+
+    // Keeps events whose payload satisfies the predicate; it runs once per distinct payload, not per event.
+    // Repeated calls intersect
+    public EventLogQuery payloadMatches(Predicate<String> predicate) {
+        filter.payloadMatches(predicate);
+        return this;
+    }
+
+    public long count() {
+        long[] count = new long[1];
+        forEachRow(row -> count[0]++);
+        return count[0];
+    }
+
+    public double sumValues() {
+        double[] sum = new double[1];
+        forEachRow(row -> sum[0] += log.value(row));
+        return sum[0];
+    }
+
+    // Materializes matching rows in storage order, which is the order the flatMap pipeline produces
+    public List<Event> collect() {
+        List<Event> out = new ArrayList<>();
+        forEachRow(row -> out.add(log.event(row)));
+        return out;
+    }
+
+    public void forEachRow(LongConsumer action) {
+        if (filter.matchesNothing()) return;
+        boolean[] payloadMask = filter.payloadMask(log.payloads);
+        if (!filter.activeUsersOnly && !filter.activeSessionsOnly) {
+            flatScan(payloadMask, action);
+            return;
+        }
+        for (int u = 0, users = log.userCount(); u < users; u++) {
+            if (filter.activeUsersOnly && !log.isUserActive(u)) continue;
+            for (int s = log.sessionStart(u), sEnd = log.sessionEnd(u); s < sEnd; s++) {
+                if (filter.activeSessionsOnly && !log.isSessionActive(s)) continue;
+                for (long e = log.eventStart(s), eEnd = log.eventEnd(s); e < eEnd; e++) {
+                    if (matches(EventLogReader.chunk(log.events, e), EventLogReader.pos(e, 0), payloadMask)) {
+                        action.accept(e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void flatScan(boolean[] payloadMask, LongConsumer action) {
+        long row = 0;
+        for (ByteBuffer chunk : log.events) {
+            int limit = chunk.capacity();
+            for (int base = 0; base < limit; base += EventLogFormat.RECORD_BYTES, row++) {
+                if (matches(chunk, base, payloadMask)) {
+                    action.accept(row);
+                }
+            }
+        }
+    }
+
+    private boolean matches(ByteBuffer chunk, int base, boolean[] payloadMask) {
+        if (!filter.matches(chunk.get(base + EventLogFormat.EVENT_TYPE), chunk.getDouble(base + EventLogFormat.EVENT_VALUE))
+                || !filter.matchesTime(chunk.getLong(base + EventLogFormat.EVENT_TIMESTAMP))) {
+            return false;
+        }
+        if (payloadMask == null) return true;
+        int code = chunk.getInt(base + EventLogFormat.EVENT_PAYLOAD);
+        return code != EventLogFormat.NO_REF && payloadMask[code];
+    }
+}
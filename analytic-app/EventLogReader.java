@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Read-only view of an EventLogFormat file through FileChannel.map. Record sections are mapped in
+// chunks of 2^CHUNK_SHIFT records, so logs larger than 2 GiB (and larger than the heap) are addressable;
+// nothing is deserialized up front except the payload dictionary, and pages are faulted in by the OS
+// as scans touch them. Accessors read straight from the mapping; use query() for filtered scans.
+public final class EventLogReader implements AutoCloseable {
+    private static final EventType[] TYPES = EventType.values();
+    private static final long CHUNK_MASK = (1L << EventLogFormat.CHUNK_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final long eventCount;
+    private final int sessionCount;
+    private final int userCount;
+    final ByteBuffer[] events;
+    private final ByteBuffer[] sessions;
+    private final ByteBuffer[] users;
+    final String[] payloads;
+    private final ByteBuffer idOffsets;
+    private final ByteBuffer idBytes;
+    private final int idCount;
+
+    private EventLogReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size < EventLogFormat.HEADER_BYTES) {
+            throw new IOException("Not an event log: file is " + size + " bytes");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, EventLogFormat.HEADER_BYTES)
+                .order(EventLogFormat.ORDER);
+        if (header.getInt(EventLogFormat.HEADER_MAGIC) != EventLogFormat.MAGIC) {
+            throw new IOException("Not an event log: bad magic");
+        }
+        short version = header.getShort(EventLogFormat.HEADER_VERSION);
+        if (version != EventLogFormat.VERSION) {
+            throw new IOException("Unsupported event log version " + version);
+        }
+        if (header.getShort(EventLogFormat.HEADER_RECORD_BYTES) != EventLogFormat.RECORD_BYTES) {
+            throw new IOException("Unexpected record size " + header.getShort(EventLogFormat.HEADER_RECORD_BYTES));
+        }
+        this.eventCount = header.getLong(EventLogFormat.HEADER_EVENT_COUNT);
+        this.sessionCount = header.getInt(EventLogFormat.HEADER_SESSION_COUNT);
+        this.userCount = header.getInt(EventLogFormat.HEADER_USER_COUNT);
+        long eventsOffset = header.getLong(EventLogFormat.HEADER_EVENTS_OFFSET);
+        long sessionsOffset = header.getLong(EventLogFormat.HEADER_SESSIONS_OFFSET);
+        long usersOffset = header.getLong(EventLogFormat.HEADER_USERS_OFFSET);
+        long payloadsOffset = header.getLong(EventLogFormat.HEADER_PAYLOADS_OFFSET);
+        long idsOffset = header.getLong(EventLogFormat.HEADER_IDS_OFFSET);
+        if (eventCount < 0 || sessionCount < 0 || userCount < 0
+                || sessionsOffset != eventsOffset + eventCount * EventLogFormat.RECORD_BYTES
+                || usersOffset != sessionsOffset + (long) sessionCount * EventLogFormat.RECORD_BYTES
+                || payloadsOffset != usersOffset + (long) userCount * EventLogFormat.RECORD_BYTES
+                || idsOffset < payloadsOffset || idsOffset > size) {
+            throw new IOException("Corrupt event log: inconsistent section offsets");
+        }
+
+        this.events = mapRecords(channel, eventsOffset, eventCount);
+        this.sessions = mapRecords(channel, sessionsOffset, sessionCount);
+        this.users = mapRecords(channel, usersOffset, userCount);
+
+        ByteBuffer[] payloadTable = mapStringTable(channel, payloadsOffset, idsOffset);
+        int payloadCount = payloadTable[0].getInt(0);
+        this.payloads = new String[payloadCount];
+        for (int i = 0; i < payloadCount; i++) {
+            payloads[i] = decode(payloadTable[1], payloadTable[2], i);
+        }
+
+        ByteBuffer[] idTable = mapStringTable(channel, idsOffset, size);
+        this.idCount = idTable[0].getInt(0);
+        this.idOffsets = idTable[1];
+        this.idBytes = idTable[2];
+    }
+
+    public static EventLogReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new EventLogReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public EventLogQuery query() {
+        return new EventLogQuery(this);
+    }
+
+    public long eventCount() {
+        return eventCount;
+    }
+
+    public int sessionCount() {
+        return sessionCount;
+    }
+
+    public int userCount() {
+        return userCount;
+    }
+
+    public String userId(int user) {
+        return id(chunk(users, user).getInt(pos(user, EventLogFormat.USER_ID)));
+    }
+
+    public String userName(int user) {
+        return id(chunk(users, user).getInt(pos(user, EventLogFormat.USER_NAME)));
+    }
+
+    public boolean isUserActive(int user) {
+        return chunk(users, user).get(pos(user, EventLogFormat.USER_ACTIVE)) != 0;
+    }
+
+    public int sessionStart(int user) {
+        return chunk(users, user).getInt(pos(user, EventLogFormat.USER_FIRST_SESSION));
+    }
+
+    public int sessionEnd(int user) {
+        ByteBuffer b = chunk(users, user);
+        return b.getInt(pos(user, EventLogFormat.USER_FIRST_SESSION)) + b.getInt(pos(user, EventLogFormat.USER_SESSION_COUNT));
+    }
+
+    public String sessionId(int session) {
+        return id(chunk(sessions, session).getInt(pos(session, EventLogFormat.SESSION_ID)));
+    }
+
+    public String sessionUserId(int session) {
+        return id(chunk(sessions, session).getInt(pos(session, EventLogFormat.SESSION_USER_ID)));
+    }
+
+    public boolean isSessionActive(int session) {
+        return chunk(sessions, session).get(pos(session, EventLogFormat.SESSION_ACTIVE)) != 0;
+    }
+
+    public long eventStart(int session) {
+        return chunk(sessions, session).getLong(pos(session, EventLogFormat.SESSION_FIRST_EVENT));
+    }
+
+    public long eventEnd(int session) {
+        ByteBuffer b = chunk(sessions, session);
+        return b.getLong(pos(session, EventLogFormat.SESSION_FIRST_EVENT)) + b.getInt(pos(session, EventLogFormat.SESSION_EVENT_COUNT));
+    }
+
+    public long timestamp(long event) {
+        return chunk(events, event).getLong(pos(event, EventLogFormat.EVENT_TIMESTAMP));
+    }
+
+    public double value(long event) {
+        return chunk(events, event).getDouble(pos(event, EventLogFormat.EVENT_VALUE));
+    }
+
+    public int typeOrdinal(long event) {
+        return chunk(events, event).get(pos(event, EventLogFormat.EVENT_TYPE));
+    }
+
+    public EventType type(long event) {
+        return TYPES[typeOrdinal(event)];
+    }
+
+    public int payloadCode(long event) {
+        return chunk(events, event).getInt(pos(event, EventLogFormat.EVENT_PAYLOAD));
+    }
+
+    public String payload(long event) {
+        int code = payloadCode(event);
+        return code == EventLogFormat.NO_REF ? null : payloads[code];
+    }
+
+    public int payloadDictionarySize() {
+        return payloads.length;
+    }
+
+    public String payloadForCode(int code) {
+        return payloads[code];
+    }
+
+    // Materializes a single row into the object model
+    public Event event(long event) {
+        ByteBuffer b = chunk(events, event);
+        int base = pos(event, 0);
+        int code = b.getInt(base + EventLogFormat.EVENT_PAYLOAD);
+        return new Event(b.getLong(base + EventLogFormat.EVENT_TIMESTAMP),
+                TYPES[b.get(base + EventLogFormat.EVENT_TYPE)],
+                b.getDouble(base + EventLogFormat.EVENT_VALUE),
+                code == EventLogFormat.NO_REF ? null : payloads[code]);
+    }
+
+    // Mapped pages are released by the GC once the reader is unreachable; close() only drops the file handle
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static ByteBuffer chunk(ByteBuffer[] chunks, long record) {
+        return chunks[(int) (record >>> EventLogFormat.CHUNK_SHIFT)];
+    }
+
+    static int pos(long record, int field) {
+        return (int) ((record & CHUNK_MASK) * EventLogFormat.RECORD_BYTES) + field;
+    }
+
+    private String id(int ref) {
+        if (ref == EventLogFormat.NO_REF) return null;
+        if (ref < 0 || ref >= idCount) throw new IndexOutOfBoundsException("id ref " + ref);
+        return decode(idOffsets, idBytes, ref);
+    }
+
+    private static String decode(ByteBuffer offsets, ByteBuffer bytes, int index) {
+        int from = Math.toIntExact(offsets.getLong(index * 8));
+        int to = Math.toIntExact(offsets.getLong(index * 8 + 8));
+        byte[] out = new byte[to - from];
+        bytes.get(from, out);
+        return new String(out, UTF_8);
+    }
+
+    private static ByteBuffer[] mapRecords(FileChannel channel, long offset, long records) throws IOException {
+        long perChunk = 1L << EventLogFormat.CHUNK_SHIFT;
+        int chunks = (int) ((records + perChunk - 1) >>> EventLogFormat.CHUNK_SHIFT);
+        ByteBuffer[] out = new ByteBuffer[chunks];
+        for (int c = 0; c < chunks; c++) {
+            long first = c * perChunk;
+            long count = Math.min(perChunk, records - first);
+            out[c] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset + first * EventLogFormat.RECORD_BYTES,
+                    count * EventLogFormat.RECORD_BYTES).order(EventLogFormat.ORDER);
+        }
+        return out;
+    }
+
+    // Returns {header, offsets, bytes}; string tables are expected to fit one mapping each
+    private static ByteBuffer[] mapStringTable(FileChannel channel, long offset, long limit) throws IOException {
+        if (limit - offset < 16) {
+            throw new IOException("Corrupt event log: truncated string table at " + offset);
+        }
+        ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, offset, 8).order(EventLogFormat.ORDER);
+        int count = head.getInt(0);
+        long offsetsBytes = 8L * (count + 1L);
+        if (count < 0 || offset + 8 + offsetsBytes > limit || offsetsBytes > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt event log: bad string table at " + offset);
+        }
+        ByteBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, offset + 8, offsetsBytes)
+                .order(EventLogFormat.ORDER);
+        long dataBytes = offsets.getLong((int) (offsetsBytes - 8));
+        long dataOffset = offset + 8 + offsetsBytes;
+        if (dataBytes < 0 || dataBytes > Integer.MAX_VALUE || dataOffset + dataBytes > limit) {
+            throw new IOException("Corrupt event log: bad string table at " + offset);
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataBytes);
+        return new ByteBuffer[]{head, offsets, bytes};
+    }
+}
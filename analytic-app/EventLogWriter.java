@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Streams a dataset into the EventLogFormat layout. Event records go straight to the file as they arrive;
+// only session/user metadata and the string tables are buffered until close(), so memory is proportional
+// to sessions, not events. Rows must arrive depth-first (user, its sessions, each session's events).
+public final class EventLogWriter implements EventSink, AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final byte[] PADDING = new byte[7];
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(EventLogFormat.ORDER);
+    private long position = EventLogFormat.HEADER_BYTES;
+
+    private final Map<String, Integer> payloadRefs = new HashMap<>();
+    private final List<String> payloads = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+
+    private long eventCount;
+
+    private long[] sessionFirstEvent = new long[64];
+    private int[] sessionIdRef = new int[64];
+    private int[] sessionUserIdRef = new int[64];
+    private boolean[] sessionActive = new boolean[64];
+    private int sessionCount;
+
+    private int[] userFirstSession = new int[16];
+    private int[] userIdRef = new int[16];
+    private int[] userNameRef = new int[16];
+    private boolean[] userActive = new boolean[16];
+    private int userCount;
+
+    private boolean closed;
+
+    private EventLogWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    public static EventLogWriter create(Path path) throws IOException {
+        return new EventLogWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    public static void write(Path path, List<User> users) throws IOException {
+        try (EventLogWriter writer = create(path)) {
+            EventSink.replay(users, writer);
+        }
+    }
+
+    @Override
+    public void user(String userId, String name, boolean active) {
+        ensureOpen();
+        if (userCount == userIdRef.length) {
+            int cap = userCount * 2;
+            userFirstSession = Arrays.copyOf(userFirstSession, cap);
+            userIdRef = Arrays.copyOf(userIdRef, cap);
+            userNameRef = Arrays.copyOf(userNameRef, cap);
+            userActive = Arrays.copyOf(userActive, cap);
+        }
+        userFirstSession[userCount] = sessionCount;
+        userIdRef[userCount] = addId(userId);
+        userNameRef[userCount] = addId(name);
+        userActive[userCount] = active;
+        userCount++;
+    }
+
+    @Override
+    public void session(String sessionId, String userId, boolean active) {
+        ensureOpen();
+        if (userCount == 0) {
+            throw new IllegalStateException("session received before user");
+        }
+        if (sessionCount == sessionIdRef.length) {
+            int cap = sessionCount * 2;
+            sessionFirstEvent = Arrays.copyOf(sessionFirstEvent, cap);
+            sessionIdRef = Arrays.copyOf(sessionIdRef, cap);
+            sessionUserIdRef = Arrays.copyOf(sessionUserIdRef, cap);
+            sessionActive = Arrays.copyOf(sessionActive, cap);
+        }
+        // Sessions normally repeat the owning user's id; point at that entry instead of storing it again
+        int ownerRef = userIdRef[userCount - 1];
+        String owner = ownerRef == EventLogFormat.NO_REF ? null : ids.get(ownerRef);
+        sessionFirstEvent[sessionCount] = eventCount;
+        sessionIdRef[sessionCount] = addId(sessionId);
+        sessionUserIdRef[sessionCount] = owner != null && owner.equals(userId) ? ownerRef : addId(userId);
+        sessionActive[sessionCount] = active;
+        sessionCount++;
+    }
+
+    @Override
+    public void event(long timestamp, EventType type, double value, String payload) {
+        ensureOpen();
+        if (sessionCount == 0) {
+            throw new IllegalStateException("event received before session");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Event type must not be null");
+        }
+        int payloadRef = EventLogFormat.NO_REF;
+        if (payload != null) {
+            payloadRef = payloadRefs.computeIfAbsent(payload, p -> {
+                payloads.add(p);
+                return payloads.size() - 1;
+            });
+        }
+        reserve(EventLogFormat.RECORD_BYTES);
+        buffer.putLong(timestamp)
+                .putDouble(value)
+                .putInt(payloadRef)
+                .put((byte) type.ordinal())
+                .put(PADDING, 0, 3);
+        eventCount++;
+    }
+
+    public long eventCount() {
+        return eventCount;
+    }
+
+    // Appends metadata and string tables, then writes the header; the file is only valid after this
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            long sessionsOffset = position + buffer.position();
+            for (int s = 0; s < sessionCount; s++) {
+                long next = s + 1 < sessionCount ? sessionFirstEvent[s + 1] : eventCount;
+                reserve(EventLogFormat.RECORD_BYTES);
+                buffer.putLong(sessionFirstEvent[s])
+                        .putInt(Math.toIntExact(next - sessionFirstEvent[s]))
+                        .putInt(sessionIdRef[s])
+                        .putInt(sessionUserIdRef[s])
+                        .put((byte) (sessionActive[s] ? 1 : 0))
+                        .put(PADDING, 0, 3);
+            }
+
+            long usersOffset = position + buffer.position();
+            for (int u = 0; u < userCount; u++) {
+                int next = u + 1 < userCount ? userFirstSession[u + 1] : sessionCount;
+                reserve(EventLogFormat.RECORD_BYTES);
+                buffer.putInt(userFirstSession[u])
+                        .putInt(next - userFirstSession[u])
+                        .putInt(userIdRef[u])
+                        .putInt(userNameRef[u])
+                        .put((byte) (userActive[u] ? 1 : 0))
+                        .put(PADDING, 0, 7);
+            }
+
+            long payloadsOffset = position + buffer.position();
+            writeStringTable(payloads);
+            long idsOffset = position + buffer.position();
+            writeStringTable(ids);
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(EventLogFormat.HEADER_BYTES).order(EventLogFormat.ORDER);
+            header.putInt(EventLogFormat.HEADER_MAGIC, EventLogFormat.MAGIC)
+                    .putShort(EventLogFormat.HEADER_VERSION, EventLogFormat.VERSION)
+                    .putShort(EventLogFormat.HEADER_RECORD_BYTES, (short) EventLogFormat.RECORD_BYTES)
+                    .putLong(EventLogFormat.HEADER_EVENT_COUNT, eventCount)
+                    .putInt(EventLogFormat.HEADER_SESSION_COUNT, sessionCount)
+                    .putInt(EventLogFormat.HEADER_USER_COUNT, userCount)
+                    .putLong(EventLogFormat.HEADER_EVENTS_OFFSET, EventLogFormat.HEADER_BYTES)
+                    .putLong(EventLogFormat.HEADER_SESSIONS_OFFSET, sessionsOffset)
+                    .putLong(EventLogFormat.HEADER_USERS_OFFSET, usersOffset)
+                    .putLong(EventLogFormat.HEADER_PAYLOADS_OFFSET, payloadsOffset)
+                    .putLong(EventLogFormat.HEADER_IDS_OFFSET, idsOffset);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int addId(String id) {
+        if (id == null) return EventLogFormat.NO_REF;
+        ids.add(id);
+        return ids.size() - 1;
+    }
+
+    private void writeStringTable(List<String> strings) throws IOException {
+        byte[][] encoded = new byte[strings.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = strings.get(i).getBytes(UTF_8);
+        }
+        reserve(8);
+        buffer.putInt(encoded.length).putInt(0);
+        long offset = 0;
+        for (byte[] bytes : encoded) {
+            reserve(8);
+            buffer.putLong(offset);
+            offset += bytes.length;
+        }
+        reserve(8);
+        buffer.putLong(offset);
+        for (byte[] bytes : encoded) {
+            int written = 0;
+            while (written < bytes.length) {
+                reserve(1);
+                int n = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, n);
+                written += n;
+            }
+        }
+    }
+
+    private void reserve(int bytes) {
+        if (buffer.remaining() < bytes) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("EventLogWriter is closed");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.IntConsumer;
+
+// Filter/aggregate API over an EventStore. Predicates mirror the flatMap pipeline in AnalyticsDemo:
+// inactive users and sessions are pruned before their events are touched, then each event row is
+// checked against the type mask and value bounds. count, sumValues and selection hand type/value-only
+// filters to a ScanKernel over the whole type/value columns, with user/session pruning applied as a
+// cached row bitmap.
+public final class EventQuery {
+    private final EventStore store;
+    private final EventFilter filter = new EventFilter();
+    private ScanKernel kernel = ScanKernels.best();
+
+    // Maps a matching row id to a projected value
+    @FunctionalInterface
+    public interface RowMapper<R> {
+        R map(EventStore store, int row);
+    }
+
+    EventQuery(EventStore store) {
+        this.store = store;
+    }
+
+    public EventQuery activeUsers() {
+        filter.activeUsersOnly = true;
+        return this;
+    }
+
+    public EventQuery activeSessions() {
+        filter.activeSessionsOnly = true;
+        return this;
+    }
+
+    // Restricts to the given types; repeated calls intersect
+    public EventQuery types(EventType... types) {
+        filter.types(types);
+        return this;
+    }
+
+    public EventQuery type(EventType type) {
+        return types(type);
+    }
+
+    public EventQuery valueGreaterThan(double threshold) {
+        filter.valueGreaterThan(threshold);
+        return this;
+    }
+
+    public EventQuery valueLessThan(double threshold) {
+        filter.valueLessThan(threshold);
+        return this;
+    }
+
+    // Keeps events with fromInclusive <= timestamp < toExclusive; repeated calls intersect
+    public EventQuery timestampBetween(long fromInclusive, long toExclusive) {
+        filter.timestampBetween(fromInclusive, toExclusive);
+        return this;
+    }
+
+    // Keeps events whose payload satisfies the predicate; it runs once per distinct payload, not per event.
+    // Repeated calls intersect
+    public EventQuery payloadMatches(Predicate<String> predicate) {
+        filter.payloadMatches(predicate);
+        return this;
+    }
+
+    // Kernel used by count, sumValues and selection; defaults to ScanKernels.best()
+    public EventQuery kernel(ScanKernel kernel) {
+        if (kernel == null) {
+            throw new IllegalArgumentException("Scan kernel must not be null");
+        }
+        this.kernel = kernel;
+        return this;
+    }
+
+    public long count() {
+        if (usesKernel()) {
+            return kernel.count(store.types, store.values, 0, store.eventCount(), filter.typeMask,
+                    minBound(), maxBound(), liveRows());
+        }
+        long[] count = new long[1];
+        forEachRow(row -> count[0]++);
+        return count[0];
+    }
+
+    public double sumValues() {
+        if (usesKernel()) {
+            return kernel.sum(store.types, store.values, 0, store.eventCount(), filter.typeMask,
+                    minBound(), maxBound(), liveRows());
+        }
+        double[] sum = new double[1];
+        double[] values = store.values;
+        forEachRow(row -> sum[0] += values[row]);
+        return sum[0];
+    }
+
+    // Bitmap over all rows of the store: bit (row & 63) of word row >>> 6 is set for each match
+    public long[] selection() {
+        long[] bits = new long[(store.eventCount() + 63) >>> 6];
+        if (usesKernel()) {
+            kernel.select(store.types, store.values, 0, store.eventCount(), filter.typeMask,
+                    minBound(), maxBound(), liveRows(), bits);
+        } else {
+            forEachRow(row -> bits[row >>> 6] |= 1L << row);
+        }
+        return bits;
+    }
+
+    // Matching row ids in storage order (user, session, event order of the original graph)
+    public int[] rowIds() {
+        int[][] holder = {new int[64]};
+        int[] size = new int[1];
+        forEachRow(row -> {
+            if (size[0] == holder[0].length) {
+                holder[0] = Arrays.copyOf(holder[0], size[0] * 2);
+            }
+            holder[0][size[0]++] = row;
+        });
+        return Arrays.copyOf(holder[0], size[0]);
+    }
+
+    // Materializes matching rows into Event objects, in the same order the flatMap pipeline produces them
+    public List<Event> collect() {
+        return project(EventStore::event);
+    }
+
+    public <R> List<R> project(RowMapper<R> mapper) {
+        List<R> out = new ArrayList<>();
+        forEachRow(row -> out.add(mapper.map(store, row)));
+        return out;
+    }
+
+    public double[] projectValues() {
+        int[] rows = rowIds();
+        double[] out = new double[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = store.values[rows[i]];
+        }
+        return out;
+    }
+
+    public long[] projectTimestamps() {
+        int[] rows = rowIds();
+        long[] out = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            out[i] = store.timestamps[rows[i]];
+        }
+        return out;
+    }
+
+    // Kernels only see types and values; infinite bounds set by the caller keep the row-by-row path,
+    // since the kernel reads an infinite bound as "no bound"
+    private boolean usesKernel() {
+        return !filter.matchesNothing() && !filter.hasTimeRange && filter.payloadPredicate == null
+                && !(filter.hasMinValue && Double.isInfinite(filter.minValueExclusive))
+                && !(filter.hasMaxValue && Double.isInfinite(filter.maxValueExclusive));
+    }
+
+    private long[] liveRows() {
+        return store.liveRows(filter.activeUsersOnly, filter.activeSessionsOnly);
+    }
+
+    private double minBound() {
+        return filter.hasMinValue ? filter.minValueExclusive : Double.NEGATIVE_INFINITY;
+    }
+
+    private double maxBound() {
+        return filter.hasMaxValue ? filter.maxValueExclusive : Double.POSITIVE_INFINITY;
+    }
+
+    public void forEachRow(IntConsumer action) {
+        if (filter.matchesNothing()) return;
+        final boolean activeUsersOnly = filter.activeUsersOnly;
+        final boolean activeSessionsOnly = filter.activeSessionsOnly;
+        final boolean[] userActive = store.userActive;
+        final boolean[] sessionActive = store.sessionActive;
+        final int[] userSessionStart = store.userSessionStart;
+        final int[] sessionEventStart = store.sessionEventStart;
+        final byte[] types = store.types;
+        final double[] values = store.values;
+        final int mask = filter.typeMask;
+        final boolean checkMin = filter.hasMinValue;
+        final boolean checkMax = filter.hasMaxValue;
+        final double min = filter.minValueExclusive;
+        final double max = filter.maxValueExclusive;
+        final boolean checkTime = filter.hasTimeRange;
+        final long[] timestamps = store.timestamps;
+        final long from = filter.fromTimestamp;
+        final long to = filter.toTimestampExclusive;
+        final boolean[] payloadMask = filter.payloadMask(store.payloadDictionary);
+        final int[] payloadCodes = store.payloadCodes;
+
+        for (int u = 0, users = userActive.length; u < users; u++) {
+            if (activeUsersOnly && !userActive[u]) continue;
+            for (int s = userSessionStart[u], sEnd = userSessionStart[u + 1]; s < sEnd; s++) {
+                if (activeSessionsOnly && !sessionActive[s]) continue;
+                for (int e = sessionEventStart[s], eEnd = sessionEventStart[s + 1]; e < eEnd; e++) {
+                    if ((mask & (1 << types[e])) == 0) continue;
+                    double v = values[e];
+                    if (checkMin && !(v > min)) continue;
+                    if (checkMax && !(v < max)) continue;
+                    if (checkTime && (timestamps[e] < from || timestamps[e] >= to)) continue;
+                    if (payloadMask != null && (payloadCodes[e] == EventStore.NO_PAYLOAD || !payloadMask[payloadCodes[e]])) continue;
+                    action.accept(e);
+                }
+            }
+        }
+    }
+}
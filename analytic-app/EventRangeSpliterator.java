@@ -0,0 +1,95 @@
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Spliterator over the events of a flattened session list, addressed by a global event index.
+// Splits halve the remaining number of events, not sessions or users, so one heavy user or one very
+// long session is divided across workers just like many small ones.
+final class EventRangeSpliterator implements Spliterator<Event> {
+    // Below this many events a split costs more than the scheduling it buys
+    private static final long MIN_SPLIT_EVENTS = 1 << 12;
+
+    private final List<List<Event>> sessions;
+    // offsets[s] = global index of the first event of session s; offsets[sessions.size()] = total events
+    private final long[] offsets;
+    private long index;
+    private final long fence;
+    private int session;
+
+    EventRangeSpliterator(List<List<Event>> sessions, long[] offsets) {
+        this(sessions, offsets, 0, offsets[sessions.size()]);
+    }
+
+    private EventRangeSpliterator(List<List<Event>> sessions, long[] offsets, long index, long fence) {
+        this.sessions = sessions;
+        this.offsets = offsets;
+        this.index = index;
+        this.fence = fence;
+        this.session = locate(index);
+    }
+
+    // Last session whose first event index is <= position; empty sessions resolve to the non-empty one that follows
+    private int locate(long position) {
+        int lo = 0;
+        int hi = sessions.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (offsets[mid] <= position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return Math.max(0, lo - 1);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Event> action) {
+        if (index >= fence) return false;
+        while (index >= offsets[session + 1]) {
+            session++;
+        }
+        action.accept(sessions.get(session).get((int) (index - offsets[session])));
+        index++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Event> action) {
+        long i = index;
+        int s = session;
+        while (i < fence) {
+            List<Event> events = sessions.get(s);
+            long base = offsets[s];
+            int to = (int) Math.min(events.size(), fence - base);
+            for (int k = (int) (i - base); k < to; k++) {
+                action.accept(events.get(k));
+            }
+            i = base + to;
+            s++;
+        }
+        index = fence;
+        session = Math.max(0, s - 1);
+    }
+
+    @Override
+    public Spliterator<Event> trySplit() {
+        long remaining = fence - index;
+        if (remaining < MIN_SPLIT_EVENTS) return null;
+        long mid = index + (remaining >>> 1);
+        EventRangeSpliterator prefix = new EventRangeSpliterator(sessions, offsets, index, mid);
+        index = mid;
+        session = locate(mid);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+}
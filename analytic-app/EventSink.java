@@ -0,0 +1,29 @@
+import java.util.List;
+
+// Depth-first receiver for a User -> Session -> Event dataset: each user is followed by its sessions,
+// each session by its events. Lets generators and loaders stream into any representation without
+// building the object graph first.
+public interface EventSink {
+    void user(String userId, String name, boolean active);
+
+    void session(String sessionId, String userId, boolean active);
+
+    void event(long timestamp, EventType type, double value, String payload);
+
+    // Replays an object graph; null users, sessions and events are skipped like the nested-loop scan does
+    static void replay(List<User> users, EventSink sink) {
+        if (users == null) return;
+        for (User u : users) {
+            if (u == null) continue;
+            sink.user(u.getId(), u.getName(), u.isActive());
+            for (Session s : u.getSessions()) {
+                if (s == null) continue;
+                sink.session(s.getSessionId(), s.getUserId(), s.isActive());
+                for (Event e : s.getEvents()) {
+                    if (e == null) continue;
+                    sink.event(e.getTimestamp(), e.getType(), e.getValue(), e.getPayload());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Column-oriented storage for the User -> Session -> Event graph.
+// Events live in parallel primitive arrays and payloads are dictionary-encoded, so a scan walks
+// contiguous memory instead of chasing one heap object per event.
+public final class EventStore {
+    static final EventType[] TYPES = EventType.values();
+    static final int NO_PAYLOAD = -1;
+
+    // User columns; sessions of user u are [userSessionStart[u], userSessionStart[u + 1])
+    final String[] userIds;
+    final String[] userNames;
+    final boolean[] userActive;
+    final int[] userSessionStart;
+
+    // Session columns; events of session s are [sessionEventStart[s], sessionEventStart[s + 1])
+    final String[] sessionIds;
+    final String[] sessionUserIds;
+    final boolean[] sessionActive;
+    final int[] sessionEventStart;
+
+    // Event columns
+    final long[] timestamps;
+    final byte[] types;
+    final double[] values;
+    final int[] payloadCodes;
+    final String[] payloadDictionary;
+
+    // Bitmaps of rows under active users and/or active sessions, built on first use; see liveRows
+    private final AtomicReferenceArray<long[]> liveRows = new AtomicReferenceArray<>(4);
+
+    private EventStore(Builder b) {
+        this.userIds = Arrays.copyOf(b.userIds, b.userCount);
+        this.userNames = Arrays.copyOf(b.userNames, b.userCount);
+        this.userActive = Arrays.copyOf(b.userActive, b.userCount);
+        this.userSessionStart = Arrays.copyOf(b.userSessionStart, b.userCount + 1);
+        this.userSessionStart[b.userCount] = b.sessionCount;
+
+        this.sessionIds = Arrays.copyOf(b.sessionIds, b.sessionCount);
+        this.sessionUserIds = Arrays.copyOf(b.sessionUserIds, b.sessionCount);
+        this.sessionActive = Arrays.copyOf(b.sessionActive, b.sessionCount);
+        this.sessionEventStart = Arrays.copyOf(b.sessionEventStart, b.sessionCount + 1);
+        this.sessionEventStart[b.sessionCount] = b.eventCount;
+
+        this.timestamps = Arrays.copyOf(b.timestamps, b.eventCount);
+        this.types = Arrays.copyOf(b.types, b.eventCount);
+        this.values = Arrays.copyOf(b.values, b.eventCount);
+        this.payloadCodes = Arrays.copyOf(b.payloadCodes, b.eventCount);
+        this.payloadDictionary = new String[b.dictionary.size()];
+        for (Map.Entry<String, Integer> entry : b.dictionary.entrySet()) {
+            payloadDictionary[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    // Encodes an existing object graph; null users, sessions and events are skipped like the nested-loop scan does
+    public static EventStore of(List<User> users) {
+        Builder builder = new Builder();
+        EventSink.replay(users, builder);
+        return builder.build();
+    }
+
+    public EventQuery query() {
+        return new EventQuery(this);
+    }
+
+    // Row bitmap (bit row & 63 of word row >>> 6) of events that survive the given user/session pruning,
+    // or null when nothing is pruned. Racing first calls may both build it; either result is the same.
+    long[] liveRows(boolean activeUsersOnly, boolean activeSessionsOnly) {
+        if (!activeUsersOnly && !activeSessionsOnly) return null;
+        int key = (activeUsersOnly ? 2 : 0) | (activeSessionsOnly ? 1 : 0);
+        long[] bits = liveRows.get(key);
+        if (bits != null) return bits;
+        bits = new long[(eventCount() + 63) >>> 6];
+        for (int u = 0; u < userActive.length; u++) {
+            if (activeUsersOnly && !userActive[u]) continue;
+            for (int s = userSessionStart[u]; s < userSessionStart[u + 1]; s++) {
+                if (activeSessionsOnly && !sessionActive[s]) continue;
+                for (int e = sessionEventStart[s]; e < sessionEventStart[s + 1]; e++) {
+                    bits[e >>> 6] |= 1L << e;
+                }
+            }
+        }
+        liveRows.compareAndSet(key, null, bits);
+        return liveRows.get(key);
+    }
+
+    public int userCount() {
+        return userIds.length;
+    }
+
+    public int sessionCount() {
+        return sessionIds.length;
+    }
+
+    public int eventCount() {
+        return timestamps.length;
+    }
+
+    public String userId(int user) {
+        return userIds[user];
+    }
+
+    public String userName(int user) {
+        return userNames[user];
+    }
+
+    public boolean isUserActive(int user) {
+        return userActive[user];
+    }
+
+    public int sessionStart(int user) {
+        return userSessionStart[user];
+    }
+
+    public int sessionEnd(int user) {
+        return userSessionStart[user + 1];
+    }
+
+    public String sessionId(int session) {
+        return sessionIds[session];
+    }
+
+    public String sessionUserId(int session) {
+        return sessionUserIds[session];
+    }
+
+    public boolean isSessionActive(int session) {
+        return sessionActive[session];
+    }
+
+    public int eventStart(int session) {
+        return sessionEventStart[session];
+    }
+
+    public int eventEnd(int session) {
+        return sessionEventStart[session + 1];
+    }
+
+    public long timestamp(int event) {
+        return timestamps[event];
+    }
+
+    public EventType type(int event) {
+        return TYPES[types[event]];
+    }
+
+    public double value(int event) {
+        return values[event];
+    }
+
+    public int payloadCode(int event) {
+        return payloadCodes[event];
+    }
+
+    public String payload(int event) {
+        int code = payloadCodes[event];
+        return code == NO_PAYLOAD ? null : payloadDictionary[code];
+    }
+
+    public int payloadDictionarySize() {
+        return payloadDictionary.length;
+    }
+
+    public String payloadForCode(int code) {
+        return payloadDictionary[code];
+    }
+
+    // Materializes a single row back into the object model
+    public Event event(int event) {
+        return new Event(timestamps[event], type(event), values[event], payload(event));
+    }
+
+    // Approximate heap footprint of the primitive event columns (user/session metadata excluded)
+    public long eventColumnBytes() {
+        long perEvent = Long.BYTES + Byte.BYTES + Double.BYTES + Integer.BYTES;
+        return perEvent * eventCount();
+    }
+
+    // Append-only builder; rows must be added depth-first: user, its sessions, each session's events
+    public static final class Builder implements EventSink {
+        private String[] userIds = new String[16];
+        private String[] userNames = new String[16];
+        private boolean[] userActive = new boolean[16];
+        private int[] userSessionStart = new int[17];
+        private int userCount;
+
+        private String[] sessionIds = new String[16];
+        private String[] sessionUserIds = new String[16];
+        private boolean[] sessionActive = new boolean[16];
+        private int[] sessionEventStart = new int[17];
+        private int sessionCount;
+
+        private long[] timestamps = new long[64];
+        private byte[] types = new byte[64];
+        private double[] values = new double[64];
+        private int[] payloadCodes = new int[64];
+        private int eventCount;
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        public Builder addUser(String id, String name, boolean active) {
+            if (userCount == userIds.length) {
+                int cap = userCount * 2;
+                userIds = Arrays.copyOf(userIds, cap);
+                userNames = Arrays.copyOf(userNames, cap);
+                userActive = Arrays.copyOf(userActive, cap);
+                userSessionStart = Arrays.copyOf(userSessionStart, cap + 1);
+            }
+            userIds[userCount] = id;
+            userNames[userCount] = name;
+            userActive[userCount] = active;
+            userSessionStart[userCount] = sessionCount;
+            userCount++;
+            return this;
+        }
+
+        public Builder addSession(String sessionId, String userId, boolean active) {
+            if (userCount == 0) {
+                throw new IllegalStateException("addSession called before addUser");
+            }
+            if (sessionCount == sessionIds.length) {
+                int cap = sessionCount * 2;
+                sessionIds = Arrays.copyOf(sessionIds, cap);
+                sessionUserIds = Arrays.copyOf(sessionUserIds, cap);
+                sessionActive = Arrays.copyOf(sessionActive, cap);
+                sessionEventStart = Arrays.copyOf(sessionEventStart, cap + 1);
+            }
+            // Sessions normally repeat the owning user's id; share that reference instead of keeping a copy
+            String owner = userIds[userCount - 1];
+            sessionIds[sessionCount] = sessionId;
+            sessionUserIds[sessionCount] = owner != null && owner.equals(userId) ? owner : userId;
+            sessionActive[sessionCount] = active;
+            sessionEventStart[sessionCount] = eventCount;
+            sessionCount++;
+            return this;
+        }
+
+        public Builder addEvent(long timestamp, EventType type, double value, String payload) {
+            if (sessionCount == 0) {
+                throw new IllegalStateException("addEvent called before addSession");
+            }
+            if (type == null) {
+                throw new IllegalArgumentException("Event type must not be null");
+            }
+            if (eventCount == timestamps.length) {
+                int cap = eventCount * 2;
+                timestamps = Arrays.copyOf(timestamps, cap);
+                types = Arrays.copyOf(types, cap);
+                values = Arrays.copyOf(values, cap);
+                payloadCodes = Arrays.copyOf(payloadCodes, cap);
+            }
+            timestamps[eventCount] = timestamp;
+            types[eventCount] = (byte) type.ordinal();
+            values[eventCount] = value;
+            payloadCodes[eventCount] = payload == null
+                    ? NO_PAYLOAD
+                    : dictionary.computeIfAbsent(payload, p -> dictionary.size());
+            eventCount++;
+            return this;
+        }
+
+        @Override
+        public void user(String userId, String name, boolean active) {
+            addUser(userId, name, active);
+        }
+
+        @Override
+        public void session(String sessionId, String userId, boolean active) {
+            addSession(sessionId, userId, active);
+        }
+
+        @Override
+        public void event(long timestamp, EventType type, double value, String payload) {
+            addEvent(timestamp, type, value, payload);
+        }
+
+        public EventStore build() {
+            return new EventStore(this);
+        }
+    }
+}
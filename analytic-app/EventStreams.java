@@ -0,0 +1,46 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Event-balanced parallel streams over the User -> Session -> Event graph.
+// users.parallelStream() splits by user count, so with heavy-tailed session sizes a few workers end up
+// with most of the events. Here user and session predicates are applied while flattening the session
+// list (cheap: sessions are far fewer than events), and the event stream is split by event count.
+// Terminal collect() reduces into per-task containers that are merged pairwise, so no shared list is contended.
+public final class EventStreams {
+    private EventStreams() {}
+
+    public static Stream<Event> parallelEvents(List<User> users) {
+        return parallelEvents(users, u -> true, s -> true);
+    }
+
+    public static Stream<Event> parallelEvents(List<User> users,
+                                               Predicate<? super User> userFilter,
+                                               Predicate<? super Session> sessionFilter) {
+        List<List<Event>> sessions = new ArrayList<>();
+        long[] offsets = new long[64];
+        long total = 0;
+        if (users != null) {
+            for (User u : users) {
+                if (u == null || !userFilter.test(u)) continue;
+                for (Session s : u.getSessions()) {
+                    if (s == null || !sessionFilter.test(s)) continue;
+                    List<Event> events = s.getEvents();
+                    if (events.isEmpty()) continue;
+                    if (sessions.size() + 1 == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    offsets[sessions.size()] = total;
+                    sessions.add(events);
+                    total += events.size();
+                }
+            }
+        }
+        offsets = Arrays.copyOf(offsets, sessions.size() + 1);
+        offsets[sessions.size()] = total;
+        return StreamSupport.stream(new EventRangeSpliterator(sessions, offsets), true);
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.Arrays;
+
+// An ordered conversion funnel such as PAGE_VIEW -> CLICK -> PURCHASE. A sequence reaches step k when
+// the first k step types occur in order; other events in between are ignored. Compiled into a
+// transition table over EventType ordinals: next state = table[state * TYPE_COUNT + ordinal].
+public final class Funnel {
+    static final int TYPE_COUNT = EventType.values().length;
+
+    private final String name;
+    private final EventType[] steps;
+    final int[] transitions;
+
+    private Funnel(String name, EventType[] steps) {
+        this.name = name;
+        this.steps = steps;
+        this.transitions = new int[(steps.length + 1) * TYPE_COUNT];
+        for (int state = 0; state <= steps.length; state++) {
+            for (int t = 0; t < TYPE_COUNT; t++) {
+                boolean advances = state < steps.length && steps[state].ordinal() == t;
+                transitions[state * TYPE_COUNT + t] = advances ? state + 1 : state;
+            }
+        }
+    }
+
+    public static Funnel of(String name, EventType... steps) {
+        if (name == null || steps == null || steps.length == 0) {
+            throw new IllegalArgumentException("A funnel needs a name and at least one step");
+        }
+        for (EventType step : steps) {
+            if (step == null) {
+                throw new IllegalArgumentException("Funnel steps must not be null: " + name);
+            }
+        }
+        return new Funnel(name, steps.clone());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int stepCount() {
+        return steps.length;
+    }
+
+    public EventType step(int index) {
+        return steps[index];
+    }
+
+    @Override
+    public String toString() {
+        return "Funnel{" +
+                "name='" + name + '\'' +
+                ", steps=" + Arrays.toString(steps) +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collector;
+
+// Evaluates a set of Funnels over User -> Session -> Event data in one pass. Each event advances every
+// funnel's state machine twice: once for the current session (reset per session) and once for the
+// user (carried across the user's sessions in list order). States are plain ints in per-accumulator
+// scratch arrays, and a session stops scanning once every funnel is complete for it and its user.
+// Users are independent, so evaluate() runs them in parallel and merges the partial FunnelResults.
+public final class FunnelEngine {
+    private static final int TYPE_COUNT = Funnel.TYPE_COUNT;
+
+    private final Funnel[] funnels;
+    // Transition tables of all funnels back to back; funnel f starts at tableOffsets[f]
+    private final int[] transitions;
+    private final int[] tableOffsets;
+    private final int[] finalStates;
+
+    private FunnelEngine(Funnel[] funnels) {
+        this.funnels = funnels;
+        this.tableOffsets = new int[funnels.length];
+        this.finalStates = new int[funnels.length];
+        int size = 0;
+        for (int f = 0; f < funnels.length; f++) {
+            tableOffsets[f] = size;
+            finalStates[f] = funnels[f].stepCount();
+            size += funnels[f].transitions.length;
+        }
+        this.transitions = new int[size];
+        for (int f = 0; f < funnels.length; f++) {
+            System.arraycopy(funnels[f].transitions, 0, transitions, tableOffsets[f], funnels[f].transitions.length);
+        }
+    }
+
+    public static FunnelEngine compile(Funnel... funnels) {
+        if (funnels == null || funnels.length == 0) {
+            throw new IllegalArgumentException("At least one funnel is required");
+        }
+        for (Funnel f : funnels) {
+            if (f == null) {
+                throw new IllegalArgumentException("Funnels must not be null");
+            }
+        }
+        return new FunnelEngine(funnels.clone());
+    }
+
+    public static FunnelEngine compile(List<Funnel> funnels) {
+        return compile(funnels.toArray(new Funnel[0]));
+    }
+
+    public FunnelResult newResult() {
+        return new FunnelResult(funnels);
+    }
+
+    public FunnelResult evaluate(List<User> users) {
+        return users.parallelStream().collect(collector());
+    }
+
+    public Collector<User, FunnelResult, FunnelResult> collector() {
+        return Collector.of(this::newResult, this::accumulate, FunnelResult::merge);
+    }
+
+    // Folds one user into the result; null users, sessions and events are skipped
+    public void accumulate(FunnelResult result, User user) {
+        if (user == null) return;
+        final int n = funnels.length;
+        final int[] table = transitions;
+        final int[] offsets = tableOffsets;
+        final int[] finals = finalStates;
+        final int[] sessionStates = result.sessionStates;
+        final int[] userStates = result.userStates;
+        Arrays.fill(userStates, 0);
+        int userPending = n;
+        for (Session session : user.getSessions()) {
+            if (session == null) continue;
+            Arrays.fill(sessionStates, 0);
+            int sessionPending = n;
+            for (Event e : session.getEvents()) {
+                if (sessionPending == 0 && userPending == 0) break;
+                if (e == null || e.getType() == null) continue;
+                int t = e.getType().ordinal();
+                for (int f = 0; f < n; f++) {
+                    int base = offsets[f] + t;
+                    int s = sessionStates[f];
+                    int next = table[base + s * TYPE_COUNT];
+                    if (next != s) {
+                        sessionStates[f] = next;
+                        if (next == finals[f]) sessionPending--;
+                    }
+                    int u = userStates[f];
+                    next = table[base + u * TYPE_COUNT];
+                    if (next != u) {
+                        userStates[f] = next;
+                        if (next == finals[f]) userPending--;
+                    }
+                }
+            }
+            for (int f = 0; f < n; f++) {
+                result.sessionDepths[result.depthOffset(f) + sessionStates[f]]++;
+            }
+            result.sessions++;
+        }
+        for (int f = 0; f < n; f++) {
+            result.userDepths[result.depthOffset(f) + userStates[f]]++;
+        }
+        result.users++;
+    }
+}
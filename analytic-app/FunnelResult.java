@@ -0,0 +1,113 @@
+import java.util.Arrays;
+
+// Mergeable funnel counts: for each funnel, how many sessions and users ended at each depth (number of
+// steps matched). Partial results from parallel partitions combine with merge().
+public final class FunnelResult {
+    private final Funnel[] funnels;
+    // Depth histogram of funnel f lives at [depthOffsets[f], depthOffsets[f] + stepCount + 1)
+    private final int[] depthOffsets;
+    final long[] sessionDepths;
+    final long[] userDepths;
+    long sessions;
+    long users;
+
+    // Per-accumulator scratch for the current session/user states, so accumulating allocates nothing
+    final int[] sessionStates;
+    final int[] userStates;
+
+    FunnelResult(Funnel[] funnels) {
+        this.funnels = funnels;
+        this.depthOffsets = new int[funnels.length];
+        int size = 0;
+        for (int f = 0; f < funnels.length; f++) {
+            depthOffsets[f] = size;
+            size += funnels[f].stepCount() + 1;
+        }
+        this.sessionDepths = new long[size];
+        this.userDepths = new long[size];
+        this.sessionStates = new int[funnels.length];
+        this.userStates = new int[funnels.length];
+    }
+
+    int depthOffset(int funnel) {
+        return depthOffsets[funnel];
+    }
+
+    public int funnelCount() {
+        return funnels.length;
+    }
+
+    public Funnel getFunnel(int funnel) {
+        return funnels[funnel];
+    }
+
+    public long sessions() {
+        return sessions;
+    }
+
+    public long users() {
+        return users;
+    }
+
+    // Sessions in which the first `step` steps of the funnel occurred in order (step 0 = all sessions)
+    public long sessionsReaching(int funnel, int step) {
+        return reaching(sessionDepths, funnel, step);
+    }
+
+    // Users whose events, across sessions in order, matched the first `step` steps
+    public long usersReaching(int funnel, int step) {
+        return reaching(userDepths, funnel, step);
+    }
+
+    // Share of sessions that completed the funnel; NaN when there are no sessions
+    public double sessionConversion(int funnel) {
+        return sessions == 0 ? Double.NaN : (double) sessionsReaching(funnel, funnels[funnel].stepCount()) / sessions;
+    }
+
+    public double userConversion(int funnel) {
+        return users == 0 ? Double.NaN : (double) usersReaching(funnel, funnels[funnel].stepCount()) / users;
+    }
+
+    // Adds other's counts into this result and returns it
+    public FunnelResult merge(FunnelResult other) {
+        if (other.funnels.length != funnels.length || other.sessionDepths.length != sessionDepths.length) {
+            throw new IllegalArgumentException("Cannot merge results of different funnel sets");
+        }
+        for (int i = 0; i < sessionDepths.length; i++) {
+            sessionDepths[i] += other.sessionDepths[i];
+            userDepths[i] += other.userDepths[i];
+        }
+        sessions += other.sessions;
+        users += other.users;
+        return this;
+    }
+
+    private long reaching(long[] depths, int funnel, int step) {
+        int steps = funnels[funnel].stepCount();
+        if (step < 0 || step > steps) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of [0, " + steps + "] for " + funnels[funnel].getName());
+        }
+        long total = 0;
+        for (int d = step; d <= steps; d++) {
+            total += depths[depthOffsets[funnel] + d];
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("FunnelResult{sessions=").append(sessions).append(", users=").append(users);
+        for (int f = 0; f < funnels.length; f++) {
+            long[] bySession = new long[funnels[f].stepCount()];
+            long[] byUser = new long[funnels[f].stepCount()];
+            for (int k = 1; k <= bySession.length; k++) {
+                bySession[k - 1] = sessionsReaching(f, k);
+                byUser[k - 1] = usersReaching(f, k);
+            }
+            sb.append(", ").append(funnels[f].getName())
+                    .append("={sessions=").append(Arrays.toString(bySession))
+                    .append(", users=").append(Arrays.toString(byUser)).append('}');
+        }
+        return sb.append('}').toString();
+    }
+}
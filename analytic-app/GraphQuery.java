@@ -0,0 +1,147 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Filter/aggregate API over the User -> Session -> Event object graph, with the same predicates as
+// EventQuery. User and session zone maps are checked before descending, so users and sessions that
+// cannot contain a match are skipped without touching their events; a payload predicate is checked
+// against each session's distinct payload codes, once per payload dictionary the sessions were
+// coded against. Scan counters from the last terminal operation show
+// how much was pruned.
+public final class GraphQuery {
+    private final List<User> users;
+    private final EventFilter filter = new EventFilter();
+    private boolean useZoneMaps = true;
+
+    private long usersSkipped;
+    private long sessionsScanned;
+    private long sessionsSkipped;
+    private long eventsScanned;
+
+    private GraphQuery(List<User> users) {
+        this.users = users;
+    }
+
+    public static GraphQuery over(List<User> users) {
+        return new GraphQuery(users);
+    }
+
+    public GraphQuery activeUsers() {
+        filter.activeUsersOnly = true;
+        return this;
+    }
+
+    public GraphQuery activeSessions() {
+        filter.activeSessionsOnly = true;
+        return this;
+    }
+
+    // Restricts to the given types; repeated calls intersect
+    public GraphQuery types(EventType... types) {
+        filter.types(types);
+        return this;
+    }
+
+    public GraphQuery type(EventType type) {
+        return types(type);
+    }
+
+    public GraphQuery valueGreaterThan(double threshold) {
+        filter.valueGreaterThan(threshold);
+        return this;
+    }
+
+    public GraphQuery valueLessThan(double threshold) {
+        filter.valueLessThan(threshold);
+        return this;
+    }
+
+    // Keeps events with fromInclusive <= timestamp < toExclusive; repeated calls intersect
+    public GraphQuery timestampBetween(long fromInclusive, long toExclusive) {
+        filter.timestampBetween(fromInclusive, toExclusive);
+        return this;
+    }
+
+    // Keeps events whose payload satisfies the predicate; it runs once per distinct payload, not per event.
+    // Repeated calls intersect
+    public GraphQuery payloadMatches(Predicate<String> predicate) {
+        filter.payloadMatches(predicate);
+        return this;
+    }
+
+    // Disables skipping so results can be checked against a full scan
+    public GraphQuery useZoneMaps(boolean enabled) {
+        this.useZoneMaps = enabled;
+        return this;
+    }
+
+    public long count() {
+        long[] count = new long[1];
+        forEach(e -> count[0]++);
+        return count[0];
+    }
+
+    public List<Event> collect() {
+        List<Event> out = new ArrayList<>();
+        forEach(out::add);
+        return out;
+    }
+
+    public void forEach(Consumer<Event> action) {
+        usersSkipped = 0;
+        sessionsScanned = 0;
+        sessionsSkipped = 0;
+        eventsScanned = 0;
+        if (users == null || filter.matchesNothing()) return;
+        Predicate<String> payloadPredicate = filter.payloadPredicate;
+        Map<PayloadDictionary, PayloadMatcher> matchers = new IdentityHashMap<>();
+        for (User u : users) {
+            if (u == null || (filter.activeUsersOnly && !u.isActive())) continue;
+            if (useZoneMaps && !u.getZoneMap().mayMatch(filter)) {
+                usersSkipped++;
+                continue;
+            }
+            for (Session s : u.getSessions()) {
+                if (s == null || (filter.activeSessionsOnly && !s.isActive())) continue;
+                PayloadMatcher payload = payloadPredicate == null || s.getPayloadDictionary() == null
+                        ? null : matchers.computeIfAbsent(s.getPayloadDictionary(), d -> d.matcher(payloadPredicate));
+                if (useZoneMaps && (!s.getZoneMap().mayMatch(filter)
+                        || (payload != null && !s.mayContainPayload(payload)))) {
+                    sessionsSkipped++;
+                    continue;
+                }
+                sessionsScanned++;
+                List<Event> events = s.getEvents();
+                eventsScanned += events.size();
+                for (Event e : events) {
+                    if (e != null && e.getType() != null
+                            && filter.matches(e.getType().ordinal(), e.getValue())
+                            && filter.matchesTime(e.getTimestamp())
+                            && (payloadPredicate == null || (payload != null ? payload.matches(e)
+                                    : e.getPayload() != null && payloadPredicate.test(e.getPayload())))) {
+                        action.accept(e);
+                    }
+                }
+            }
+        }
+    }
+
+    public long usersSkipped() {
+        return usersSkipped;
+    }
+
+    public long sessionsScanned() {
+        return sessionsScanned;
+    }
+
+    public long sessionsSkipped() {
+        return sessionsSkipped;
+    }
+
+    public long eventsScanned() {
+        return eventsScanned;
+    }
+}
@@ -0,0 +1,101 @@
+// Mergeable distinct-count sketch: 2^precision one-byte registers, relative error ~1.04 / sqrt(2^precision).
+// Inputs are reduced to 64-bit hashes, so the sketch never holds the ids themselves.
+public final class HyperLogLog {
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be in [4, 18], got " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(CharSequence value) {
+        if (value != null) addHash(hash(value));
+    }
+
+    public void add(long value) {
+        addHash(mix(value));
+    }
+
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The sentinel bit caps the rank at 64 - precision + 1 when the remaining bits are all zero
+        long w = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(w) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            // Small-range correction: linear counting over empty registers
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    // Register-wise max; both sketches must use the same precision
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int sizeInBytes() {
+        return registers.length;
+    }
+
+    static long hash(CharSequence value) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return mix(h);
+    }
+
+    // MurmurHash3 finalizer: spreads every input bit over the whole word
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{precision=" + precision + ", estimate=" + estimate() + '}';
+    }
+}
@@ -0,0 +1,94 @@
+// Point-in-time counters of an IngestPipeline. offered = accepted + dropped + sampledOut once producers
+// are quiet; queueDepth is approximate while they are running. Latency is measured from offer() to
+// the event landing in its session buffer, including any time the producer spent blocked.
+public final class IngestMetrics {
+    private final long offered;
+    private final long accepted;
+    private final long dropped;
+    private final long sampledOut;
+    private final long producerWaits;
+    private final long consumed;
+    private final long batches;
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long meanLatencyNanos;
+    private final long maxLatencyNanos;
+
+    IngestMetrics(long offered, long accepted, long dropped, long sampledOut, long producerWaits,
+                  long consumed, long batches, int queueDepth, int queueCapacity,
+                  long meanLatencyNanos, long maxLatencyNanos) {
+        this.offered = offered;
+        this.accepted = accepted;
+        this.dropped = dropped;
+        this.sampledOut = sampledOut;
+        this.producerWaits = producerWaits;
+        this.consumed = consumed;
+        this.batches = batches;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.meanLatencyNanos = meanLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    public long getOffered() {
+        return offered;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getSampledOut() {
+        return sampledOut;
+    }
+
+    // Times a BLOCK producer found its ring full and parked
+    public long getProducerWaits() {
+        return producerWaits;
+    }
+
+    public long getConsumed() {
+        return consumed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getMeanLatencyNanos() {
+        return meanLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestMetrics{" +
+                "offered=" + offered +
+                ", accepted=" + accepted +
+                ", dropped=" + dropped +
+                ", sampledOut=" + sampledOut +
+                ", producerWaits=" + producerWaits +
+                ", consumed=" + consumed +
+                ", batches=" + batches +
+                ", queueDepth=" + queueDepth +
+                ", queueCapacity=" + queueCapacity +
+                ", meanLatencyNanos=" + meanLatencyNanos +
+                ", maxLatencyNanos=" + maxLatencyNanos +
+                '}';
+    }
+}
@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Live ingestion into the User -> Session -> Event model. Any number of producer threads call offer();
+// events are routed by user id to a shard, each shard being a lock-free bounded ring drained in batches
+// by its own consumer thread. Consumers append to per-session buffers and keep running per-type
+// count/sum aggregates; snapshot() freezes the buffers into ordinary User/Session objects.
+// Payloads offered as strings are coded against the pipeline's PayloadDictionary.
+// Events of one user offered from one thread keep their order. When a ring is full the configured
+// Backpressure decides whether the producer waits, loses the event, or (SAMPLE) starts keeping only a
+// fraction of events once the ring passes a fill threshold.
+public final class IngestPipeline implements AutoCloseable {
+    public enum Backpressure { BLOCK, DROP, SAMPLE }
+
+    private static final int TYPE_COUNT = EventType.values().length;
+    private static final long PRODUCER_WAIT_NANOS = 1_000;
+    private static final long CONSUMER_IDLE_NANOS = 50_000;
+
+    private final Backpressure backpressure;
+    private final int sampleOneIn;
+    private final int sampleAboveDepth;
+    private final int batchSize;
+    private final PayloadDictionary payloads;
+    private final Shard[] shards;
+
+    private volatile boolean closed;
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder producerWaits = new LongAdder();
+
+    private IngestPipeline(Builder b) {
+        this.backpressure = b.backpressure;
+        this.sampleOneIn = b.sampleOneIn;
+        this.batchSize = b.batchSize;
+        this.payloads = b.payloads != null ? b.payloads : new PayloadDictionary(PayloadDictionary.DEFAULT_CAPACITY);
+        this.shards = new Shard[b.consumers];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(new IngestRingBuffer(b.capacity), batchSize);
+        }
+        this.sampleAboveDepth = (int) (shards[0].ring.capacity() * b.sampleAboveFill);
+        for (int i = 0; i < shards.length; i++) {
+            Shard shard = shards[i];
+            String name = "ingest-consumer-" + i;
+            shard.consumer = new Thread(() -> consume(shard), name);
+            shard.consumer.setDaemon(true);
+            shard.consumer.start();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean offer(String userId, String sessionId, long timestamp, EventType type, double value, String payload) {
+        return offer(userId, sessionId, new Event(timestamp, type, value, payload, payloads));
+    }
+
+    // True when the event was queued; false when backpressure dropped or sampled it out
+    public boolean offer(String userId, String sessionId, Event event) {
+        if (userId == null || sessionId == null || event == null || event.getType() == null) {
+            throw new IllegalArgumentException("User id, session id and a typed event are required");
+        }
+        inFlight.increment();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Ingest pipeline is closed");
+            }
+            offered.increment();
+            Shard shard = shards[shardOf(userId)];
+            IngestRingBuffer ring = shard.ring;
+            if (backpressure == Backpressure.SAMPLE && ring.depth() >= sampleAboveDepth
+                    && ThreadLocalRandom.current().nextInt(sampleOneIn) != 0) {
+                sampledOut.increment();
+                return false;
+            }
+            long now = System.nanoTime();
+            while (!ring.offer(userId, sessionId, event, now)) {
+                if (backpressure != Backpressure.BLOCK) {
+                    dropped.increment();
+                    return false;
+                }
+                // A dead consumer never frees a slot, so waiting for one would never end
+                shard.checkAlive();
+                producerWaits.increment();
+                LockSupport.parkNanos(PRODUCER_WAIT_NANOS);
+            }
+            accepted.increment();
+            return true;
+        } finally {
+            inFlight.decrement();
+        }
+    }
+
+    // Waits until every accepted event has reached its session buffer; throws IllegalStateException
+    // when a consumer has failed or the consumers stopped before catching up
+    public void awaitDrained() {
+        awaitDrained(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    // As awaitDrained(), but gives up after the timeout; true when everything accepted was consumed
+    public boolean awaitDrained(long timeout, TimeUnit unit) {
+        if (unit == null) {
+            throw new IllegalArgumentException("Time unit must not be null");
+        }
+        long start = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        while (consumed() < accepted.sum()) {
+            boolean stopped = true;
+            for (Shard shard : shards) {
+                shard.checkAlive();
+                stopped &= !shard.consumer.isAlive();
+            }
+            if (stopped) {
+                // Re-read: the last batch may have landed between the check above and the liveness probe
+                if (consumed() >= accepted.sum()) return true;
+                throw new IllegalStateException("Ingest consumers stopped with " + (accepted.sum() - consumed())
+                        + " accepted events unconsumed");
+            }
+            if (System.nanoTime() - start >= timeoutNanos) return false;
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while waiting for the ingest pipeline to drain");
+            }
+            LockSupport.parkNanos(CONSUMER_IDLE_NANOS);
+        }
+        return true;
+    }
+
+    public PayloadDictionary payloadDictionary() {
+        return payloads;
+    }
+
+    // Users in first-seen order per shard; sessions hold the events consumed so far
+    public List<User> snapshot() {
+        List<User> users = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Map.Entry<String, List<SessionBuffer>> entry : shard.userSessions.entrySet()) {
+                    List<Session> sessions = new ArrayList<>(entry.getValue().size());
+                    for (SessionBuffer sb : entry.getValue()) {
+                        sessions.add(new Session(sb.sessionId, entry.getKey(), true, sb.events));
+                    }
+                    users.add(new User(entry.getKey(), entry.getKey(), true, sessions));
+                }
+            }
+        }
+        return users;
+    }
+
+    public long count(EventType type) {
+        long total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.counts[type.ordinal()];
+            }
+        }
+        return total;
+    }
+
+    public double sum(EventType type) {
+        double total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.sums[type.ordinal()];
+            }
+        }
+        return total;
+    }
+
+    public IngestMetrics metrics() {
+        long consumed = 0;
+        long batches = 0;
+        long latencySum = 0;
+        long latencyMax = 0;
+        int depth = 0;
+        int capacity = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                consumed += shard.consumed;
+                batches += shard.batches;
+                latencySum += shard.latencySumNanos;
+                latencyMax = Math.max(latencyMax, shard.latencyMaxNanos);
+            }
+            depth += shard.ring.depth();
+            capacity += shard.ring.capacity();
+        }
+        return new IngestMetrics(offered.sum(), accepted.sum(), dropped.sum(), sampledOut.sum(),
+                producerWaits.sum(), consumed, batches, depth, capacity,
+                consumed == 0 ? 0 : latencySum / consumed, latencyMax);
+    }
+
+    // Rejects new offers, lets in-flight ones finish, then drains the rings and stops the consumers
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        while (inFlight.sum() != 0) {
+            LockSupport.parkNanos(PRODUCER_WAIT_NANOS);
+        }
+        for (Shard shard : shards) {
+            shard.stopping = true;
+            LockSupport.unpark(shard.consumer);
+        }
+        for (Shard shard : shards) {
+            try {
+                shard.consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private int shardOf(String userId) {
+        int h = userId.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), shards.length);
+    }
+
+    private long consumed() {
+        long total = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                total += shard.consumed;
+            }
+        }
+        return total;
+    }
+
+    private void consume(Shard shard) {
+        IngestRingBuffer.Batch batch = shard.batch;
+        try {
+            while (true) {
+                int n = shard.ring.drainTo(batch, batchSize);
+                if (n > 0) {
+                    shard.apply(batch, n, System.nanoTime());
+                } else if (shard.stopping) {
+                    // No producer is in flight any more, so an empty ring stays empty
+                    if (shard.ring.depth() == 0) return;
+                } else {
+                    LockSupport.parkNanos(CONSUMER_IDLE_NANOS);
+                }
+            }
+        } catch (Throwable t) {
+            // Kept for awaitDrained() and blocked producers, which would otherwise wait on this shard forever
+            shard.failure = t;
+            throw t;
+        }
+    }
+
+    private static final class SessionBuffer {
+        final String sessionId;
+        final List<Event> events = new ArrayList<>();
+
+        SessionBuffer(String sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    // Consumer-owned state; the consumer takes the monitor once per batch so readers see whole batches
+    private static final class Shard {
+        final IngestRingBuffer ring;
+        final IngestRingBuffer.Batch batch;
+        final Map<String, SessionBuffer> sessions = new HashMap<>();
+        final Map<String, List<SessionBuffer>> userSessions = new LinkedHashMap<>();
+        final long[] counts = new long[TYPE_COUNT];
+        final double[] sums = new double[TYPE_COUNT];
+        long consumed;
+        long batches;
+        long latencySumNanos;
+        long latencyMaxNanos;
+        volatile boolean stopping;
+        volatile Throwable failure;
+        Thread consumer;
+
+        Shard(IngestRingBuffer ring, int batchSize) {
+            this.ring = ring;
+            this.batch = new IngestRingBuffer.Batch(batchSize);
+        }
+
+        void checkAlive() {
+            Throwable t = failure;
+            if (t != null) {
+                throw new IllegalStateException("Ingest consumer " + consumer.getName() + " failed", t);
+            }
+        }
+
+        synchronized void apply(IngestRingBuffer.Batch batch, int n, long nowNanos) {
+            for (int i = 0; i < n; i++) {
+                Event e = batch.events[i];
+                SessionBuffer session = sessions.get(batch.sessionIds[i]);
+                if (session == null) {
+                    session = new SessionBuffer(batch.sessionIds[i]);
+                    sessions.put(session.sessionId, session);
+                    userSessions.computeIfAbsent(batch.userIds[i], id -> new ArrayList<>()).add(session);
+                }
+                session.events.add(e);
+                counts[e.getType().ordinal()]++;
+                sums[e.getType().ordinal()] += e.getValue();
+                long latency = nowNanos - batch.enqueuedAtNanos[i];
+                latencySumNanos += latency;
+                if (latency > latencyMaxNanos) latencyMaxNanos = latency;
+                batch.events[i] = null;
+                batch.userIds[i] = null;
+                batch.sessionIds[i] = null;
+            }
+            consumed += n;
+            batches++;
+        }
+    }
+
+    public static final class Builder {
+        private int capacity = 1 << 16;
+        private int consumers = 1;
+        private int batchSize = 256;
+        private Backpressure backpressure = Backpressure.BLOCK;
+        private int sampleOneIn = 10;
+        private double sampleAboveFill = 0.5;
+        private PayloadDictionary payloads;
+
+        private Builder() {}
+
+        // Slots per consumer ring, rounded up to a power of two
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        public Builder consumers(int consumers) {
+            if (consumers <= 0) {
+                throw new IllegalArgumentException("Consumer count must be > 0, got " + consumers);
+            }
+            this.consumers = consumers;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be > 0, got " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder backpressure(Backpressure backpressure) {
+            if (backpressure == null) {
+                throw new IllegalArgumentException("Backpressure policy must not be null");
+            }
+            this.backpressure = backpressure;
+            return this;
+        }
+
+        // SAMPLE keeps one event in oneIn once a ring is more than aboveFill (0..1) full
+        public Builder sampling(int oneIn, double aboveFill) {
+            if (oneIn <= 0 || !(aboveFill >= 0.0 && aboveFill <= 1.0)) {
+                throw new IllegalArgumentException("Require oneIn > 0 and 0 <= aboveFill <= 1, got "
+                        + oneIn + ", " + aboveFill);
+            }
+            this.sampleOneIn = oneIn;
+            this.sampleAboveFill = aboveFill;
+            return this;
+        }
+
+        // Dictionary to code offered payloads against, e.g. to share codes with other ingest paths;
+        // by default each pipeline gets its own
+        public Builder payloadDictionary(PayloadDictionary payloads) {
+            if (payloads == null) {
+                throw new IllegalArgumentException("Payload dictionary must not be null");
+            }
+            this.payloads = payloads;
+            return this;
+        }
+
+        public IngestPipeline build() {
+            return new IngestPipeline(this);
+        }
+    }
+}
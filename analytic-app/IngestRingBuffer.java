@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer / single-consumer ring of pending events. Producers claim a slot with one CAS
+// on the tail and publish it by advancing the slot's sequence number; the consumer owns the head and
+// hands slots back the same way, so neither side takes a lock. Capacity is rounded up to a power of two.
+final class IngestRingBuffer {
+    private final int mask;
+    // sequence[i] == position: free for the producer claiming position; == position + 1: filled
+    private final AtomicLongArray sequence;
+    private final Event[] events;
+    private final String[] userIds;
+    private final String[] sessionIds;
+    private final long[] enqueuedAtNanos;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    IngestRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring capacity must be in [2, 2^30], got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequence.set(i, i);
+        }
+        this.events = new Event[size];
+        this.userIds = new String[size];
+        this.sessionIds = new String[size];
+        this.enqueuedAtNanos = new long[size];
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    // Approximate when producers are racing; exact when they are quiet
+    int depth() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    // False when the ring is full
+    boolean offer(String userId, String sessionId, Event event, long nowNanos) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long diff = sequence.getAcquire(slot) - position;
+            if (diff < 0) return false;
+            if (diff == 0 && tail.compareAndSet(position, position + 1)) {
+                events[slot] = event;
+                userIds[slot] = userId;
+                sessionIds[slot] = sessionId;
+                enqueuedAtNanos[slot] = nowNanos;
+                sequence.setRelease(slot, position + 1);
+                return true;
+            }
+            // Another producer took this position first; reload the tail
+            Thread.onSpinWait();
+        }
+    }
+
+    // Consumer only: moves up to max published events to the batch, returns how many
+    int drainTo(Batch batch, int max) {
+        long position = head;
+        int n = 0;
+        while (n < max) {
+            int slot = (int) position & mask;
+            if (sequence.getAcquire(slot) != position + 1) break;
+            batch.events[n] = events[slot];
+            batch.userIds[n] = userIds[slot];
+            batch.sessionIds[n] = sessionIds[slot];
+            batch.enqueuedAtNanos[n] = enqueuedAtNanos[slot];
+            events[slot] = null;
+            userIds[slot] = null;
+            sessionIds[slot] = null;
+            sequence.setRelease(slot, position + mask + 1);
+            position++;
+            n++;
+        }
+        head = position;
+        return n;
+    }
+
+    // Consumer-side scratch arrays, reused across drains
+    static final class Batch {
+        final Event[] events;
+        final String[] userIds;
+        final String[] sessionIds;
+        final long[] enqueuedAtNanos;
+
+        Batch(int size) {
+            this.events = new Event[size];
+            this.userIds = new String[size];
+            this.sessionIds = new String[size];
+            this.enqueuedAtNanos = new long[size];
+        }
+    }
+}
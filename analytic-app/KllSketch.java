@@ -0,0 +1,171 @@
+import java.util.Arrays;
+
+// Mergeable quantile sketch (KLL). Level h holds items of weight 2^h; when the sketch exceeds its
+// capacity the lowest full level is sorted and every other item is promoted, so memory stays around
+// 3k doubles regardless of input size. Rank error is roughly 1.7 / k.
+public final class KllSketch {
+    private static final double DECAY = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+
+    private final int k;
+    private double[][] levels = new double[0][];
+    private int[] sizes = new int[0];
+    private int[] capacities = new int[0];
+    private int retained;
+    private int totalCapacity;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    // Deterministic coin for compaction offsets, so identical input gives an identical sketch
+    private long coin = 0x9E3779B97F4A7C15L;
+
+    public KllSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k must be >= 8, got " + k);
+        }
+        this.k = k;
+        ensureLevel(0);
+    }
+
+    // NaN is ignored
+    public void update(double value) {
+        if (Double.isNaN(value)) return;
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+        count++;
+        append(0, value);
+        if (retained >= totalCapacity) compress();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+
+    public int retainedItems() {
+        return retained;
+    }
+
+    // Value at normalized rank q in [0, 1]; NaN when empty
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1], got " + q);
+        }
+        if (count == 0) return Double.NaN;
+        if (q == 0) return min;
+        if (q == 1) return max;
+        // Walk all levels in value order, accumulating weights until the target rank is reached
+        double[][] sorted = new double[levels.length][];
+        int[] cursor = new int[levels.length];
+        for (int h = 0; h < levels.length; h++) {
+            sorted[h] = Arrays.copyOf(levels[h], sizes[h]);
+            Arrays.sort(sorted[h]);
+        }
+        double target = q * count;
+        long cumulative = 0;
+        while (true) {
+            int best = -1;
+            for (int h = 0; h < sorted.length; h++) {
+                if (cursor[h] < sorted[h].length
+                        && (best < 0 || sorted[h][cursor[h]] < sorted[best][cursor[best]])) {
+                    best = h;
+                }
+            }
+            if (best < 0) return max;
+            double v = sorted[best][cursor[best]++];
+            cumulative += 1L << best;
+            if (cumulative >= target) return v;
+        }
+    }
+
+    // Folds other into this sketch; other is left unchanged. Merging a sketch into itself doubles every weight
+    public KllSketch merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge k=" + other.k + " into k=" + k);
+        }
+        if (other.count == 0) return this;
+        // Snapshot first: when other == this, append grows the very levels being read
+        double[][] otherLevels = other.levels.clone();
+        int[] otherSizes = other.sizes.clone();
+        for (int h = 0; h < otherLevels.length; h++) {
+            for (int i = 0; i < otherSizes[h]; i++) {
+                append(h, otherLevels[h][i]);
+            }
+        }
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        compress();
+        return this;
+    }
+
+    private void append(int level, double value) {
+        ensureLevel(level);
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_LEVEL_CAPACITY, sizes[level] * 2));
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    // Adding a level shifts every level one step further from the top, shrinking lower capacities
+    private void ensureLevel(int level) {
+        if (level < levels.length) return;
+        int old = levels.length;
+        levels = Arrays.copyOf(levels, level + 1);
+        sizes = Arrays.copyOf(sizes, level + 1);
+        capacities = new int[level + 1];
+        for (int h = old; h <= level; h++) {
+            levels[h] = new double[MIN_LEVEL_CAPACITY];
+        }
+        totalCapacity = 0;
+        for (int h = 0; h <= level; h++) {
+            capacities[h] = Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, level - h)));
+            totalCapacity += capacities[h];
+        }
+    }
+
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int level = 0;
+            while (level < levels.length - 1 && sizes[level] < capacities[level]) {
+                level++;
+            }
+            compact(level);
+        }
+    }
+
+    // Sorts the level and promotes every other item (random offset) to the next level;
+    // an odd leftover stays behind so total weight is preserved exactly
+    private void compact(int level) {
+        ensureLevel(level + 1);
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int even = size & ~1;
+        for (int i = nextCoin(); i < even; i += 2) {
+            append(level + 1, items[i]);
+        }
+        retained -= even;
+        if ((size & 1) == 1) {
+            items[0] = items[size - 1];
+            sizes[level] = 1;
+        } else {
+            sizes[level] = 0;
+        }
+    }
+
+    private int nextCoin() {
+        coin ^= coin << 13;
+        coin ^= coin >>> 7;
+        coin ^= coin << 17;
+        return (int) (coin & 1);
+    }
+}
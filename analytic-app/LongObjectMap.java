@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Open-addressing hash map from primitive long keys to values: linear probing, backward-shift deletion,
+// and a table that shrinks again as entries are removed, so its footprint follows the live entry count.
+// Not thread-safe; null values are not allowed.
+final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongObjectMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return (V) values[i];
+        }
+        return null;
+    }
+
+    void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectMap does not hold null values");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                deleteAt(i, mask);
+                if (--size * 8 < keys.length && keys.length > MIN_CAPACITY) {
+                    rehash(keys.length / 2);
+                }
+                return old;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        for (Object v : values) {
+            if (v != null) action.accept((V) v);
+        }
+    }
+
+    // Removes every entry whose value matches; returns how many were removed
+    @SuppressWarnings("unchecked")
+    int removeIf(Predicate<? super V> filter) {
+        // Collect first: backward-shift deletion moves entries across the slots being iterated
+        long[] doomed = new long[8];
+        int n = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && filter.test((V) values[i])) {
+                if (n == doomed.length) doomed = Arrays.copyOf(doomed, n * 2);
+                doomed[n++] = keys[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            remove(doomed[i]);
+        }
+        return n;
+    }
+
+    private void deleteAt(int hole, int mask) {
+        // Shift later entries of the probe run back so lookups never stop at the new gap
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) break;
+            int home = slot(keys[i], mask);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        int mask = newCapacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = slot(oldKeys[j], mask);
+            while (values[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,80 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// EventSink that assembles the classic User -> Session -> Event object graph. Payloads are coded
+// against the sink's PayloadDictionary, which can be shared by sinks building parts of one dataset.
+public final class ObjectGraphSink implements EventSink {
+    private final PayloadDictionary payloads;
+    private final List<User> users = new ArrayList<>();
+    private String userId;
+    private String userName;
+    private boolean userActive;
+    private List<Session> sessions;
+    private String sessionId;
+    private String sessionUserId;
+    private boolean sessionActive;
+    private List<Event> events;
+
+    public ObjectGraphSink() {
+        this(new PayloadDictionary(PayloadDictionary.DEFAULT_CAPACITY));
+    }
+
+    public ObjectGraphSink(PayloadDictionary payloads) {
+        if (payloads == null) {
+            throw new IllegalArgumentException("Payload dictionary must not be null");
+        }
+        this.payloads = payloads;
+    }
+
+    @Override
+    public void user(String userId, String name, boolean active) {
+        closeUser();
+        this.userId = userId;
+        this.userName = name;
+        this.userActive = active;
+        this.sessions = new ArrayList<>();
+    }
+
+    @Override
+    public void session(String sessionId, String userId, boolean active) {
+        if (sessions == null) {
+            throw new IllegalStateException("session received before user");
+        }
+        closeSession();
+        this.sessionId = sessionId;
+        this.sessionUserId = userId;
+        this.sessionActive = active;
+        this.events = new ArrayList<>();
+    }
+
+    @Override
+    public void event(long timestamp, EventType type, double value, String payload) {
+        if (events == null) {
+            throw new IllegalStateException("event received before session");
+        }
+        events.add(new Event(timestamp, type, value, payload, payloads));
+    }
+
+    public PayloadDictionary payloadDictionary() {
+        return payloads;
+    }
+
+    // Completes the pending user and returns everything received so far
+    public List<User> users() {
+        closeUser();
+        return users;
+    }
+
+    private void closeSession() {
+        if (events == null) return;
+        sessions.add(new Session(sessionId, sessionUserId, sessionActive, events));
+        events = null;
+    }
+
+    private void closeUser() {
+        if (sessions == null) return;
+        closeSession();
+        users.add(new User(userId, userName, userActive, sessions));
+        sessions = null;
+    }
+}
@@ -0,0 +1,120 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+// Ingest-time intern table mapping payload strings to dense int codes, so millions of events share a
+// handful of String instances and payload predicates can be evaluated once per distinct value. Each
+// ingest path (DataGenerator, IngestPipeline) owns one; codes only mean something to the dictionary
+// that issued them, and the table lives as long as the events built from it.
+// Lookups of known payloads are lock-free; adding an entry takes a short lock. The table is bounded:
+// once full, new payloads get NO_CODE and are kept as plain strings by the caller.
+public final class PayloadDictionary {
+    public static final int NO_CODE = -1;
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private final Object appendLock = new Object();
+    // Both volatile: size is written after the entry it covers and read before entries, so a reader
+    // that sees size > code also sees entries[code], in whichever array it finds
+    private volatile String[] entries = new String[16];
+    private volatile int size;
+    private final LongAdder overflowed = new LongAdder();
+
+    public PayloadDictionary(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Dictionary capacity must be > 0, got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    // NO_CODE for null, or when the table is full and the payload is not already present
+    public int encode(String payload) {
+        if (payload == null) return NO_CODE;
+        Integer code = codes.get(payload);
+        if (code != null) return code;
+        if (size == capacity) {
+            // Full: refuse without taking the lock, so high-cardinality payloads do not serialize ingest
+            overflowed.increment();
+            return NO_CODE;
+        }
+        return append(payload);
+    }
+
+    public String decode(int code) {
+        if (code == NO_CODE) return null;
+        if (code >= 0 && code < size) {
+            return entries[code];
+        }
+        synchronized (appendLock) {
+            if (code < 0 || code >= size) {
+                throw new IllegalArgumentException("Unknown payload code " + code);
+            }
+            return entries[code];
+        }
+    }
+
+    // The canonical instance for a payload, or the argument itself when it cannot be coded
+    public String intern(String payload) {
+        int code = encode(payload);
+        return code == NO_CODE ? payload : decode(code);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Number of encode calls that were refused because the table was full
+    public long overflowed() {
+        return overflowed.sum();
+    }
+
+    // Evaluates the predicate once per current entry; see PayloadMatcher
+    public PayloadMatcher matcher(Predicate<String> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("Payload predicate must not be null");
+        }
+        int n = size;
+        String[] snapshot = entries;
+        boolean[] matches = new boolean[n];
+        for (int code = 0; code < n; code++) {
+            matches[code] = predicate.test(snapshot[code]);
+        }
+        return new PayloadMatcher(this, predicate, matches);
+    }
+
+    private int append(String payload) {
+        synchronized (appendLock) {
+            Integer existing = codes.get(payload);
+            if (existing != null) return existing;
+            int code = size;
+            if (code == capacity) {
+                overflowed.increment();
+                return NO_CODE;
+            }
+            String[] current = entries;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, Math.min(capacity, code * 2));
+                entries = current;
+            }
+            current[code] = payload;
+            size = code + 1;
+            codes.put(payload, code);
+            return code;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PayloadDictionary{" +
+                "size=" + size +
+                ", capacity=" + capacity +
+                ", overflowed=" + overflowed.sum() +
+                '}';
+    }
+}
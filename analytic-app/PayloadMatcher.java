@@ -0,0 +1,50 @@
+import java.util.function.Predicate;
+
+// A payload predicate pre-evaluated against every entry of a PayloadDictionary, so testing an event is
+// an array lookup on its code instead of a string operation. Codes added to the dictionary after the
+// matcher was built, and events not coded against this dictionary, fall back to the predicate itself.
+// Null payloads never match. Immutable and safe to share across threads.
+public final class PayloadMatcher {
+    private final PayloadDictionary dictionary;
+    private final Predicate<String> predicate;
+    private final boolean[] matches;
+    private final int matchingCodes;
+
+    PayloadMatcher(PayloadDictionary dictionary, Predicate<String> predicate, boolean[] matches) {
+        this.dictionary = dictionary;
+        this.predicate = predicate;
+        this.matches = matches;
+        int n = 0;
+        for (boolean m : matches) {
+            if (m) n++;
+        }
+        this.matchingCodes = n;
+    }
+
+    public boolean matches(Event event) {
+        return event.getPayloadDictionary() == dictionary
+                ? matchesCode(event.getPayloadCode()) : matchesUncoded(event.getPayload());
+    }
+
+    public PayloadDictionary dictionary() {
+        return dictionary;
+    }
+
+    public boolean matchesCode(int code) {
+        if (code == PayloadDictionary.NO_CODE) return false;
+        return code < matches.length ? matches[code] : predicate.test(dictionary.decode(code));
+    }
+
+    public boolean matchesUncoded(String payload) {
+        return payload != null && predicate.test(payload);
+    }
+
+    // How many dictionary entries the predicate was evaluated against up front
+    public int evaluatedEntries() {
+        return matches.length;
+    }
+
+    public int matchingEntries() {
+        return matchingCodes;
+    }
+}
@@ -0,0 +1,49 @@
+// Reference ScanKernel: one row per iteration, no dependencies beyond java.base
+final class ScalarScanKernel implements ScanKernel {
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public long count(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                      long[] rowFilter) {
+        long count = 0;
+        for (int row = from; row < to; row++) {
+            if (matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public double sum(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                      long[] rowFilter) {
+        double sum = 0;
+        for (int row = from; row < to; row++) {
+            if (matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) sum += values[row];
+        }
+        return sum;
+    }
+
+    @Override
+    public long select(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                       long[] rowFilter, long[] selection) {
+        long count = 0;
+        for (int row = from; row < to; row++) {
+            if (matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) {
+                selection[row >>> 6] |= 1L << row;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static boolean matches(byte[] types, double[] values, int row, int typeMask, double minExclusive, double maxExclusive,
+                           long[] rowFilter) {
+        if (rowFilter != null && (rowFilter[row >>> 6] & (1L << row)) == 0) return false;
+        if ((typeMask & (1 << types[row])) == 0) return false;
+        double value = values[row];
+        if (minExclusive != Double.NEGATIVE_INFINITY && !(value > minExclusive)) return false;
+        return maxExclusive == Double.POSITIVE_INFINITY || value < maxExclusive;
+    }
+}
@@ -0,0 +1,19 @@
+// Type/value filter over the EventStore columns for rows in [from, to): the type ordinal must be in
+// typeMask and the value strictly between minExclusive and maxExclusive. An infinite bound means no
+// bound on that side, so NaN values pass only when both bounds are infinite. rowFilter, when not null,
+// is a bitmap in the selection layout below; rows whose bit is clear are skipped.
+// Implementations must agree row for row; sums may differ in the last bits because of addition order.
+public interface ScanKernel {
+    String name();
+
+    long count(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+               long[] rowFilter);
+
+    double sum(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+               long[] rowFilter);
+
+    // ORs bit (row & 63) of selection[row >>> 6] for every matching row and returns the match count;
+    // selection must cover at least (to + 63) / 64 words
+    long select(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                long[] rowFilter, long[] selection);
+}
@@ -0,0 +1,32 @@
+// Picks the ScanKernel for this JVM. The vectorized kernel lives in vector/VectorScanKernel.java and is
+// only compiled and used when jdk.incubator.vector is enabled, e.g.
+//   javac --add-modules jdk.incubator.vector -d out *.java vector/*.java
+//   java --add-modules jdk.incubator.vector -cp out AnalyticsDemo
+// Otherwise (or when that class is missing) every scan runs on the scalar kernel.
+public final class ScanKernels {
+    private static final ScanKernel SCALAR = new ScalarScanKernel();
+    private static final ScanKernel BEST = loadBest();
+
+    private ScanKernels() {}
+
+    public static ScanKernel scalar() {
+        return SCALAR;
+    }
+
+    public static ScanKernel best() {
+        return BEST;
+    }
+
+    public static boolean vectorized() {
+        return BEST != SCALAR;
+    }
+
+    private static ScanKernel loadBest() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return SCALAR;
+        try {
+            return (ScanKernel) Class.forName("VectorScanKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
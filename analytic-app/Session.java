@@ -7,12 +7,33 @@ public class Session {
     private final String userId;
     private final boolean active;
     private final List<Event> events;
+    private final ZoneMap zoneMap;
+    // Codes are relative to payloadDictionary; payloads of events coded elsewhere or not at all count as uncoded
+    private final PayloadDictionary payloadDictionary;
+    private final int[] payloadCodes;
+    private final boolean hasUncodedPayloads;
 
     public Session(String sessionId, String userId, boolean active, List<Event> events) {
         this.sessionId = sessionId;
         this.userId = userId;
         this.active = active;
         this.events = events != null ? new ArrayList<>(events) : new ArrayList<>();
+        this.zoneMap = ZoneMap.of(this.events);
+        PayloadDictionary dictionary = this.events.stream()
+                .filter(e -> e != null && e.getPayloadDictionary() != null)
+                .map(Event::getPayloadDictionary)
+                .findFirst()
+                .orElse(null);
+        this.payloadDictionary = dictionary;
+        this.payloadCodes = this.events.stream()
+                .filter(e -> e != null && dictionary != null && e.getPayloadDictionary() == dictionary)
+                .mapToInt(Event::getPayloadCode)
+                .distinct()
+                .sorted()
+                .toArray();
+        this.hasUncodedPayloads = this.events.stream()
+                .anyMatch(e -> e != null && e.getPayload() != null
+                        && (dictionary == null || e.getPayloadDictionary() != dictionary));
     }
 
     public String getSessionId() {
@@ -30,4 +51,29 @@ public class Session {
     public List<Event> getEvents() {
         return Collections.unmodifiableList(events);
     }
+
+    // Event types and value/timestamp bounds, computed once here since the event list never changes
+    public ZoneMap getZoneMap() {
+        return zoneMap;
+    }
+
+    // Dictionary the payload codes belong to, or null when no event here is coded
+    public PayloadDictionary getPayloadDictionary() {
+        return payloadDictionary;
+    }
+
+    // Distinct payload codes of this session's events, ascending
+    public int[] getPayloadCodes() {
+        return payloadCodes.clone();
+    }
+
+    // False only when no event here can satisfy the matcher, checked per distinct code rather than per event
+    public boolean mayContainPayload(PayloadMatcher matcher) {
+        if (hasUncodedPayloads) return true;
+        if (payloadCodes.length > 0 && matcher.dictionary() != payloadDictionary) return true;
+        for (int code : payloadCodes) {
+            if (matcher.matchesCode(code)) return true;
+        }
+        return false;
+    }
 }
\ No newline at end of file
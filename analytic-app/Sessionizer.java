@@ -0,0 +1,216 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+// Builds Sessions from an unordered stream of (user, timestamp, type, value, payload) tuples. A user's
+// events belong to the same session while consecutive timestamps are at most gapMs apart.
+// Arrivals may be out of order by up to allowedLatenessMs of event time: events wait in per-user
+// buffers until the watermark (max timestamp seen - lateness) passes them, then are appended in
+// timestamp order. Events behind the watermark are dropped and counted. If more than
+// maxBufferedEvents are waiting, the watermark jumps to the max timestamp to flush them.
+// A session is emitted once the watermark is more than gapMs past its last event, and a user with
+// nothing open or buffered is evicted. Per-user state is keyed by a primitive long, so memory follows
+// the number of users with open sessions rather than all users ever seen.
+// Not thread-safe: feed it from a single thread.
+public final class Sessionizer {
+    private static final Comparator<Event> BY_TIMESTAMP = Comparator.comparingLong(Event::getTimestamp);
+
+    private final long gap;
+    private final long lateness;
+    private final int maxBufferedEvents;
+    private final long sweepInterval;
+    private final LongFunction<String> userIds;
+    private final Consumer<Session> sink;
+    private final LongObjectMap<UserState> users = new LongObjectMap<>();
+
+    private long maxTimestamp = Long.MIN_VALUE;
+    private long watermark = Long.MIN_VALUE;
+    private long nextSweep = Long.MIN_VALUE;
+    private int bufferedEvents;
+
+    private long acceptedEvents;
+    private long lateEvents;
+    private long emittedSessions;
+    private long evictedUsers;
+    private long forcedFlushes;
+    private int peakLiveUsers;
+
+    private Sessionizer(long gap, long lateness, int maxBufferedEvents, LongFunction<String> userIds,
+                        Consumer<Session> sink) {
+        if (gap <= 0 || lateness < 0 || maxBufferedEvents <= 0) {
+            throw new IllegalArgumentException("Require gap > 0, lateness >= 0 and maxBufferedEvents > 0, got "
+                    + gap + ", " + lateness + ", " + maxBufferedEvents);
+        }
+        if (userIds == null || sink == null) {
+            throw new IllegalArgumentException("User id mapping and session sink must not be null");
+        }
+        this.gap = gap;
+        this.lateness = lateness;
+        this.maxBufferedEvents = maxBufferedEvents;
+        // Sweeping all live users costs O(users), so only do it every quarter gap of event time
+        this.sweepInterval = Math.max(1, gap / 4);
+        this.userIds = userIds;
+        this.sink = sink;
+    }
+
+    // userIds turns the primitive user key into the id carried by emitted Sessions and Users
+    public static Sessionizer create(long gapMs, long allowedLatenessMs, int maxBufferedEvents,
+                                     LongFunction<String> userIds, Consumer<Session> sink) {
+        return new Sessionizer(gapMs, allowedLatenessMs, maxBufferedEvents, userIds, sink);
+    }
+
+    public boolean accept(long userKey, long timestamp, EventType type, double value, String payload) {
+        return accept(userKey, new Event(timestamp, type, value, payload));
+    }
+
+    // Returns false when the event is behind the watermark and was dropped
+    public boolean accept(long userKey, Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event must not be null");
+        }
+        long ts = event.getTimestamp();
+        if (ts < watermark) {
+            lateEvents++;
+            return false;
+        }
+        UserState state = users.get(userKey);
+        if (state == null) {
+            state = new UserState(userKey);
+            users.put(userKey, state);
+            peakLiveUsers = Math.max(peakLiveUsers, users.size());
+        }
+        state.pending.add(event);
+        bufferedEvents++;
+        acceptedEvents++;
+        if (ts > maxTimestamp) {
+            maxTimestamp = ts;
+        }
+        if (bufferedEvents > maxBufferedEvents) {
+            forcedFlushes++;
+            advance(maxTimestamp, false);
+        } else if (maxTimestamp - lateness >= nextSweep) {
+            advance(maxTimestamp - lateness, false);
+        }
+        return true;
+    }
+
+    // Moves event time forward (e.g. when the source is idle); never moves it back
+    public void advanceWatermark(long newWatermark) {
+        if (newWatermark > watermark) {
+            advance(newWatermark, false);
+        }
+    }
+
+    // Emits every open session and buffered event, as if the input had ended
+    public void flush() {
+        advance(Math.max(watermark, maxTimestamp), true);
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    public int liveUsers() {
+        return users.size();
+    }
+
+    public int peakLiveUsers() {
+        return peakLiveUsers;
+    }
+
+    public int bufferedEvents() {
+        return bufferedEvents;
+    }
+
+    public long acceptedEvents() {
+        return acceptedEvents;
+    }
+
+    public long lateEvents() {
+        return lateEvents;
+    }
+
+    public long emittedSessions() {
+        return emittedSessions;
+    }
+
+    public long evictedUsers() {
+        return evictedUsers;
+    }
+
+    public long forcedFlushes() {
+        return forcedFlushes;
+    }
+
+    // Groups emitted sessions into Users (first-seen order) for the query APIs that take List<User>
+    public static List<User> toUsers(List<Session> sessions) {
+        Map<String, List<Session>> byUser = new LinkedHashMap<>();
+        for (Session s : sessions) {
+            byUser.computeIfAbsent(s.getUserId(), id -> new ArrayList<>()).add(s);
+        }
+        List<User> out = new ArrayList<>(byUser.size());
+        for (Map.Entry<String, List<Session>> e : byUser.entrySet()) {
+            out.add(new User(e.getKey(), e.getKey(), true, e.getValue()));
+        }
+        return out;
+    }
+
+    private void advance(long newWatermark, boolean end) {
+        watermark = Math.max(watermark, newWatermark);
+        nextSweep = watermark + sweepInterval;
+        evictedUsers += users.removeIf(state -> state.release(watermark, end));
+    }
+
+    private final class UserState {
+        final long key;
+        final List<Event> pending = new ArrayList<>(4);
+        List<Event> open;
+        long lastTimestamp;
+        String userId;
+
+        UserState(long key) {
+            this.key = key;
+        }
+
+        // Appends buffered events the watermark has passed and closes the open session once no future
+        // event can extend it; true when the user is left with no state and can be evicted
+        boolean release(long wm, boolean end) {
+            if (!pending.isEmpty()) {
+                pending.sort(BY_TIMESTAMP);
+                int ready = 0;
+                while (ready < pending.size() && (end || pending.get(ready).getTimestamp() < wm)) {
+                    Event e = pending.get(ready++);
+                    if (open != null && e.getTimestamp() - lastTimestamp > gap) {
+                        emit();
+                    }
+                    if (open == null) {
+                        open = new ArrayList<>();
+                    }
+                    open.add(e);
+                    lastTimestamp = e.getTimestamp();
+                }
+                pending.subList(0, ready).clear();
+                bufferedEvents -= ready;
+            }
+            // Anything still to come has timestamp >= wm, so it would start a new session anyway
+            if (open != null && (end || wm - lastTimestamp > gap)) {
+                emit();
+            }
+            return open == null && pending.isEmpty();
+        }
+
+        private void emit() {
+            if (userId == null) {
+                userId = userIds.apply(key);
+            }
+            String sessionId = userId + "@" + open.get(0).getTimestamp();
+            sink.accept(new Session(sessionId, userId, true, open));
+            emittedSessions++;
+            open = null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+// Stream collectors for the bounded-memory sketches. Each accumulates into its own sketch per stream
+// partition and merges partitions in the combiner, so the same collector works sequentially, in
+// parallel, or per node with the finished sketches merged afterwards.
+public final class Sketches {
+    private Sketches() {}
+
+    public static <T> Collector<T, ?, HyperLogLog> distinct(int precision, Function<? super T, ? extends CharSequence> key) {
+        return Collector.of(
+                () -> new HyperLogLog(precision),
+                (hll, t) -> hll.add(key.apply(t)),
+                HyperLogLog::merge,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public static <T> Collector<T, ?, KllSketch> quantiles(int k, ToDoubleFunction<? super T> value) {
+        return Collector.of(
+                () -> new KllSketch(k),
+                (sketch, t) -> sketch.update(value.applyAsDouble(t)),
+                KllSketch::merge,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public static <T, K> Collector<T, ?, SpaceSaving<K>> heavyHitters(int capacity, Function<? super T, ? extends K> key) {
+        return Collector.<T, SpaceSaving<K>>of(
+                () -> new SpaceSaving<>(capacity),
+                (sketch, t) -> sketch.offer(key.apply(t)),
+                SpaceSaving::merge,
+                Collector.Characteristics.UNORDERED,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    // Distinct users per EventType over a stream of users: every event adds its user's id to the
+    // sketch of its type. Filter users (e.g. User::isActive) upstream.
+    public static Collector<User, ?, Map<EventType, HyperLogLog>> distinctUsersByType(int precision) {
+        return Collector.of(
+                () -> {
+                    HyperLogLog[] byType = new HyperLogLog[EventStore.TYPES.length];
+                    for (int i = 0; i < byType.length; i++) byType[i] = new HyperLogLog(precision);
+                    return byType;
+                },
+                (byType, user) -> {
+                    if (user == null || user.getId() == null) return;
+                    long hash = HyperLogLog.hash(user.getId());
+                    for (Session s : user.getSessions()) {
+                        if (s == null) continue;
+                        // A user counts once per type, so only the type bitmap of each session matters
+                        int mask = s.getZoneMap().getTypeMask();
+                        for (int t = 0; mask != 0; t++, mask >>>= 1) {
+                            if ((mask & 1) != 0) byType[t].addHash(hash);
+                        }
+                    }
+                },
+                (left, right) -> {
+                    for (int i = 0; i < left.length; i++) left[i].merge(right[i]);
+                    return left;
+                },
+                byType -> {
+                    Map<EventType, HyperLogLog> out = new EnumMap<>(EventType.class);
+                    for (int i = 0; i < byType.length; i++) out.put(EventStore.TYPES[i], byType[i]);
+                    return out;
+                },
+                Collector.Characteristics.UNORDERED);
+    }
+}
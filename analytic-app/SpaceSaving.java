@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Mergeable heavy-hitters sketch (Space-Saving) with a fixed number of counters. When a new item
+// arrives and all counters are taken, the smallest counter is reassigned to it and its old count
+// becomes the new item's error bound. Counters sit in a min-heap, so each update is O(log capacity).
+public final class SpaceSaving<T> {
+    private final int capacity;
+    private final Map<T, Counter<T>> counters = new HashMap<>();
+    private final List<Counter<T>> heap = new ArrayList<>();
+    private long total;
+
+    // count overestimates the true frequency by at most error
+    public static final class Entry<T> {
+        private final T item;
+        private final long count;
+        private final long error;
+
+        Entry(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return item + "=" + count + (error > 0 ? " (+/-" + error + ")" : "");
+        }
+    }
+
+    private static final class Counter<T> {
+        T item;
+        long count;
+        long error;
+        int heapIndex;
+
+        Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be > 0, got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public void offer(T item) {
+        offer(item, 1);
+    }
+
+    // Null items are ignored
+    public void offer(T item, long weight) {
+        if (item == null || weight <= 0) return;
+        total += weight;
+        Counter<T> c = counters.get(item);
+        if (c != null) {
+            c.count += weight;
+            siftDown(c.heapIndex);
+        } else if (heap.size() < capacity) {
+            c = new Counter<>(item, weight, 0);
+            counters.put(item, c);
+            c.heapIndex = heap.size();
+            heap.add(c);
+            siftUp(c.heapIndex);
+        } else {
+            Counter<T> min = heap.get(0);
+            counters.remove(min.item);
+            min.error = min.count;
+            min.count += weight;
+            min.item = item;
+            counters.put(item, min);
+            siftDown(0);
+        }
+    }
+
+    // Heaviest items first
+    public List<Entry<T>> topK(int k) {
+        List<Entry<T>> out = new ArrayList<>(heap.size());
+        for (Counter<T> c : heap) {
+            out.add(new Entry<>(c.item, c.count, c.error));
+        }
+        out.sort(Comparator.comparingLong((Entry<T> e) -> e.count).reversed());
+        return out.size() > k ? new ArrayList<>(out.subList(0, k)) : out;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    // Combines two summaries: an item missing from a full summary is charged that summary's minimum
+    // count (the most it could have had), then the heaviest capacity counters are kept
+    public SpaceSaving<T> merge(SpaceSaving<T> other) {
+        long thisFloor = heap.size() == capacity ? heap.get(0).count : 0;
+        long otherFloor = other.heap.size() == other.capacity ? other.heap.get(0).count : 0;
+        Set<T> items = new HashSet<>(counters.keySet());
+        items.addAll(other.counters.keySet());
+        List<Counter<T>> merged = new ArrayList<>(items.size());
+        for (T item : items) {
+            Counter<T> a = counters.get(item);
+            Counter<T> b = other.counters.get(item);
+            long count = (a != null ? a.count : thisFloor) + (b != null ? b.count : otherFloor);
+            long error = (a != null ? a.error : thisFloor) + (b != null ? b.error : otherFloor);
+            merged.add(new Counter<>(item, count, error));
+        }
+        merged.sort(Comparator.comparingLong((Counter<T> c) -> c.count).reversed());
+        counters.clear();
+        heap.clear();
+        for (int i = 0; i < Math.min(capacity, merged.size()); i++) {
+            Counter<T> c = merged.get(i);
+            counters.put(c.item, c);
+            c.heapIndex = heap.size();
+            heap.add(c);
+            siftUp(c.heapIndex);
+        }
+        total += other.total;
+        return this;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap.get(parent).count <= heap.get(i).count) return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        int n = heap.size();
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= n) return;
+            int smallest = left;
+            int right = left + 1;
+            if (right < n && heap.get(right).count < heap.get(left).count) smallest = right;
+            if (heap.get(i).count <= heap.get(smallest).count) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        Counter<T> a = heap.get(i);
+        Counter<T> b = heap.get(j);
+        heap.set(i, b);
+        heap.set(j, a);
+        a.heapIndex = j;
+        b.heapIndex = i;
+    }
+}
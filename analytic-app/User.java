@@ -7,12 +7,18 @@ public class User {
     private final String name;
     private final boolean active;
     private final List<Session> sessions;
+    private final ZoneMap zoneMap;
 
     public User(String id, String name, boolean active, List<Session> sessions) {
         this.id = id;
         this.name = name;
         this.active = active;
         this.sessions = sessions != null ? new ArrayList<>(sessions) : new ArrayList<>();
+        ZoneMap merged = ZoneMap.EMPTY;
+        for (Session s : this.sessions) {
+            if (s != null) merged = merged.union(s.getZoneMap());
+        }
+        this.zoneMap = merged;
     }
 
     public String getId() {
@@ -30,4 +36,9 @@ public class User {
     public List<Session> getSessions() {
         return Collections.unmodifiableList(sessions);
     }
+
+    // Union of the session zone maps (active and inactive sessions alike)
+    public ZoneMap getZoneMap() {
+        return zoneMap;
+    }
 }
\ No newline at end of file
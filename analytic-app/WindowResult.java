@@ -0,0 +1,54 @@
+import java.util.Arrays;
+
+// Aggregates of Event.value per EventType for one window [start, end) of event time
+public final class WindowResult {
+    private final long start;
+    private final long end;
+    private final long[] counts;
+    private final double[] sums;
+
+    WindowResult(long start, long end, long[] counts, double[] sums) {
+        this.start = start;
+        this.end = end;
+        this.counts = counts;
+        this.sums = sums;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long count(EventType type) {
+        return counts[type.ordinal()];
+    }
+
+    public double sum(EventType type) {
+        return sums[type.ordinal()];
+    }
+
+    // NaN when the window holds no events of this type
+    public double average(EventType type) {
+        long c = counts[type.ordinal()];
+        return c == 0 ? Double.NaN : sums[type.ordinal()] / c;
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowResult{" +
+                "start=" + start +
+                ", end=" + end +
+                ", counts=" + Arrays.toString(counts) +
+                ", sums=" + Arrays.toString(sums) +
+                '}';
+    }
+}
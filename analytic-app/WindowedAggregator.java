@@ -0,0 +1,202 @@
+import java.util.function.Consumer;
+
+// Incremental count/sum/average of Event.value per EventType over tumbling or sliding event-time windows.
+// Events are folded into pre-aggregated panes (pane = gcd(size, slide)) held in a ring buffer, so memory is
+// bounded by (size + lateness) / pane regardless of traffic; raw events are never retained.
+// Windows [start, start + size) start at multiples of the slide. The watermark trails the highest timestamp
+// seen by the allowed lateness; a window is emitted once the watermark reaches its end, and events older than
+// the watermark are dropped and counted.
+// Not thread-safe: feed it from a single consumer thread.
+public final class WindowedAggregator {
+    private static final int TYPE_COUNT = EventType.values().length;
+
+    private final long size;
+    private final long slide;
+    private final long pane;
+    private final long lateness;
+    private final int panesPerWindow;
+    private final int capacity;
+    private final Consumer<WindowResult> sink;
+
+    // Ring of panes; slot for pane p is floorMod(p, capacity), values at [slot * TYPE_COUNT + type ordinal]
+    private final long[] counts;
+    private final double[] sums;
+    private final long[] slotEvents;
+
+    private boolean started;
+    private long watermark = Long.MIN_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private long nextWindowStart;
+    private long oldestPane;
+    private long retainedEvents;
+
+    private long acceptedEvents;
+    private long droppedLateEvents;
+    private long emittedWindows;
+
+    private WindowedAggregator(long size, long slide, long lateness, Consumer<WindowResult> sink) {
+        if (size <= 0 || slide <= 0 || slide > size) {
+            throw new IllegalArgumentException("Require 0 < slide <= size, got size=" + size + ", slide=" + slide);
+        }
+        if (lateness < 0) {
+            throw new IllegalArgumentException("Allowed lateness must be >= 0, got " + lateness);
+        }
+        if (sink == null) {
+            throw new IllegalArgumentException("Window sink must not be null");
+        }
+        this.size = size;
+        this.slide = slide;
+        this.pane = gcd(size, slide);
+        this.lateness = lateness;
+        this.panesPerWindow = (int) (size / pane);
+        // Live panes span from the oldest unfired window start up to the newest accepted timestamp
+        this.capacity = Math.toIntExact(panesPerWindow + (lateness + pane - 1) / pane + 2);
+        this.sink = sink;
+        this.counts = new long[capacity * TYPE_COUNT];
+        this.sums = new double[capacity * TYPE_COUNT];
+        this.slotEvents = new long[capacity];
+    }
+
+    public static WindowedAggregator tumbling(long sizeMs, long allowedLatenessMs, Consumer<WindowResult> sink) {
+        return new WindowedAggregator(sizeMs, sizeMs, allowedLatenessMs, sink);
+    }
+
+    public static WindowedAggregator sliding(long sizeMs, long slideMs, long allowedLatenessMs,
+                                             Consumer<WindowResult> sink) {
+        return new WindowedAggregator(sizeMs, slideMs, allowedLatenessMs, sink);
+    }
+
+    public boolean accept(Event event) {
+        if (event == null) return false;
+        return accept(event.getTimestamp(), event.getType(), event.getValue());
+    }
+
+    // Returns false when the event is behind the watermark and was dropped
+    public boolean accept(long timestamp, EventType type, double value) {
+        if (type == null) {
+            throw new IllegalArgumentException("Event type must not be null");
+        }
+        if (timestamp < watermark) {
+            droppedLateEvents++;
+            return false;
+        }
+        if (!started) {
+            start(Math.max(watermark, timestamp - lateness));
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+        // Fire and recycle first so the slot for this timestamp no longer holds an older pane
+        advanceWatermark(timestamp - lateness);
+
+        int slot = (int) Math.floorMod(Math.floorDiv(timestamp, pane), (long) capacity);
+        int idx = slot * TYPE_COUNT + type.ordinal();
+        counts[idx]++;
+        sums[idx] += value;
+        slotEvents[slot]++;
+        retainedEvents++;
+        acceptedEvents++;
+        return true;
+    }
+
+    // Moves event time forward (e.g. on idle sources); never moves it back
+    public void advanceWatermark(long newWatermark) {
+        if (newWatermark <= watermark) return;
+        watermark = newWatermark;
+        if (!started) return;
+        while (nextWindowStart + size <= watermark) {
+            if (retainedEvents == 0) {
+                // Nothing buffered: jump over the gap instead of walking empty windows
+                nextWindowStart = firstOpenWindowStart(watermark);
+                oldestPane = Math.floorDiv(nextWindowStart, pane);
+                return;
+            }
+            fire(nextWindowStart);
+            nextWindowStart += slide;
+            release(Math.floorDiv(nextWindowStart, pane));
+        }
+    }
+
+    // Emits every remaining window that holds buffered events, as if the input had ended
+    public void flush() {
+        if (!started || maxTimestamp == Long.MIN_VALUE) return;
+        // The last window holding maxTimestamp starts at the slide boundary at or below it
+        advanceWatermark(Math.floorDiv(maxTimestamp, slide) * slide + size);
+    }
+
+    public long watermark() {
+        return watermark;
+    }
+
+    public long acceptedEvents() {
+        return acceptedEvents;
+    }
+
+    public long droppedLateEvents() {
+        return droppedLateEvents;
+    }
+
+    public long emittedWindows() {
+        return emittedWindows;
+    }
+
+    public int paneCapacity() {
+        return capacity;
+    }
+
+    private void start(long initialWatermark) {
+        started = true;
+        nextWindowStart = firstOpenWindowStart(initialWatermark);
+        oldestPane = Math.floorDiv(nextWindowStart, pane);
+    }
+
+    // Earliest window start whose window still ends after the given watermark
+    private long firstOpenWindowStart(long watermark) {
+        return (Math.floorDiv(watermark - size, slide) + 1) * slide;
+    }
+
+    private void fire(long start) {
+        long firstPane = Math.floorDiv(start, pane);
+        long[] windowCounts = new long[TYPE_COUNT];
+        double[] windowSums = new double[TYPE_COUNT];
+        long total = 0;
+        for (int i = 0; i < panesPerWindow; i++) {
+            int slot = (int) Math.floorMod(firstPane + i, (long) capacity);
+            if (slotEvents[slot] == 0) continue;
+            total += slotEvents[slot];
+            int base = slot * TYPE_COUNT;
+            for (int t = 0; t < TYPE_COUNT; t++) {
+                windowCounts[t] += counts[base + t];
+                windowSums[t] += sums[base + t];
+            }
+        }
+        if (total == 0) return;
+        emittedWindows++;
+        sink.accept(new WindowResult(start, start + size, windowCounts, windowSums));
+    }
+
+    // Clears panes that no unfired window can reference any more
+    private void release(long newOldestPane) {
+        for (long p = oldestPane; p < newOldestPane; p++) {
+            int slot = (int) Math.floorMod(p, (long) capacity);
+            if (slotEvents[slot] == 0) continue;
+            retainedEvents -= slotEvents[slot];
+            slotEvents[slot] = 0;
+            int base = slot * TYPE_COUNT;
+            for (int t = 0; t < TYPE_COUNT; t++) {
+                counts[base + t] = 0;
+                sums[base + t] = 0.0;
+            }
+        }
+        oldestPane = Math.max(oldestPane, newOldestPane);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
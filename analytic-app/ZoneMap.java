@@ -0,0 +1,105 @@
+import java.util.List;
+
+// Summary of an event range built at ingest time: which EventTypes occur (ordinal bitmap) and the
+// min/max of value and timestamp. A scan consults it to skip ranges that cannot satisfy a predicate.
+// NaN values are ignored when computing bounds; they never satisfy a value predicate anyway.
+public final class ZoneMap {
+    public static final ZoneMap EMPTY = new ZoneMap(0, 0,
+            Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Long.MAX_VALUE, Long.MIN_VALUE);
+
+    private final int eventCount;
+    private final int typeMask;
+    private final double minValue;
+    private final double maxValue;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+
+    private ZoneMap(int eventCount, int typeMask, double minValue, double maxValue, long minTimestamp, long maxTimestamp) {
+        this.eventCount = eventCount;
+        this.typeMask = typeMask;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    public static ZoneMap of(List<Event> events) {
+        if (events == null || events.isEmpty()) return EMPTY;
+        int count = 0;
+        int mask = 0;
+        double minV = Double.POSITIVE_INFINITY;
+        double maxV = Double.NEGATIVE_INFINITY;
+        long minT = Long.MAX_VALUE;
+        long maxT = Long.MIN_VALUE;
+        for (Event e : events) {
+            if (e == null) continue;
+            count++;
+            if (e.getType() != null) mask |= 1 << e.getType().ordinal();
+            double v = e.getValue();
+            if (v < minV) minV = v;
+            if (v > maxV) maxV = v;
+            long t = e.getTimestamp();
+            if (t < minT) minT = t;
+            if (t > maxT) maxT = t;
+        }
+        return count == 0 ? EMPTY : new ZoneMap(count, mask, minV, maxV, minT, maxT);
+    }
+
+    public ZoneMap union(ZoneMap other) {
+        if (other == null || other.eventCount == 0) return this;
+        if (eventCount == 0) return other;
+        return new ZoneMap(eventCount + other.eventCount,
+                typeMask | other.typeMask,
+                Math.min(minValue, other.minValue),
+                Math.max(maxValue, other.maxValue),
+                Math.min(minTimestamp, other.minTimestamp),
+                Math.max(maxTimestamp, other.maxTimestamp));
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getTypeMask() {
+        return typeMask;
+    }
+
+    public boolean containsType(EventType type) {
+        return (typeMask & (1 << type.ordinal())) != 0;
+    }
+
+    public double getMinValue() {
+        return minValue;
+    }
+
+    public double getMaxValue() {
+        return maxValue;
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    // False only when no event in the range can pass the filter's type, value and time predicates
+    boolean mayMatch(EventFilter filter) {
+        if ((typeMask & filter.typeMask) == 0) return false;
+        if (filter.hasMinValue && !(maxValue > filter.minValueExclusive)) return false;
+        if (filter.hasMaxValue && !(minValue < filter.maxValueExclusive)) return false;
+        return !filter.hasTimeRange
+                || (maxTimestamp >= filter.fromTimestamp && minTimestamp < filter.toTimestampExclusive);
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneMap{" +
+                "eventCount=" + eventCount +
+                ", typeMask=" + Integer.toBinaryString(typeMask) +
+                ", value=[" + minValue + ", " + maxValue + "]" +
+                ", timestamp=[" + minTimestamp + ", " + maxTimestamp + "]" +
+                '}';
+    }
+}
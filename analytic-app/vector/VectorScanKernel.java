@@ -0,0 +1,139 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// ScanKernel on jdk.incubator.vector, loaded reflectively by ScanKernels. Rows are processed in
+// 64-row blocks aligned to selection words: the type test runs on byte lanes and the value bounds on
+// double lanes, each folded into a 64-bit selection word via mask.toLong() and ANDed with the row
+// filter word. Blocks whose filter word is zero are skipped; unaligned head and tail rows use the
+// scalar predicate.
+final class VectorScanKernel implements ScanKernel {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final int BLOCK = 64;
+
+    VectorScanKernel() {
+        if (BLOCK % BYTES.length() != 0 || BLOCK % DOUBLES.length() != 0) {
+            throw new IllegalStateException("Unsupported vector shape " + BYTES + " / " + DOUBLES);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + BYTES.vectorBitSize() + "-bit)";
+    }
+
+    @Override
+    public long count(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                      long[] rowFilter) {
+        long count = 0;
+        int row = from;
+        int alignedEnd = alignedEnd(from, to);
+        for (; row < alignedEnd && (row & (BLOCK - 1)) != 0; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) count++;
+        }
+        for (; row < alignedEnd; row += BLOCK) {
+            count += Long.bitCount(selectBlock(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter));
+        }
+        for (; row < to; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public double sum(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                      long[] rowFilter) {
+        double sum = 0;
+        int row = from;
+        int alignedEnd = alignedEnd(from, to);
+        for (; row < alignedEnd && (row & (BLOCK - 1)) != 0; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) sum += values[row];
+        }
+        DoubleVector acc = DoubleVector.zero(DOUBLES);
+        for (; row < alignedEnd; row += BLOCK) {
+            long live = rowFilter == null ? -1L : rowFilter[row >>> 6];
+            if (live == 0) continue;
+            long typeBits = typeBits(types, row, typeMask) & live;
+            if (typeBits == 0) continue;
+            for (int k = 0; k < BLOCK; k += DOUBLES.length()) {
+                DoubleVector v = DoubleVector.fromArray(DOUBLES, values, row + k);
+                VectorMask<Double> m = VectorMask.fromLong(DOUBLES, typeBits >>> k)
+                        .and(valueMask(v, minExclusive, maxExclusive));
+                acc = acc.add(v, m);
+            }
+        }
+        sum += acc.reduceLanes(VectorOperators.ADD);
+        for (; row < to; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) sum += values[row];
+        }
+        return sum;
+    }
+
+    @Override
+    public long select(byte[] types, double[] values, int from, int to, int typeMask, double minExclusive, double maxExclusive,
+                       long[] rowFilter, long[] selection) {
+        long count = 0;
+        int row = from;
+        int alignedEnd = alignedEnd(from, to);
+        for (; row < alignedEnd && (row & (BLOCK - 1)) != 0; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) {
+                selection[row >>> 6] |= 1L << row;
+                count++;
+            }
+        }
+        for (; row < alignedEnd; row += BLOCK) {
+            long word = selectBlock(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter);
+            selection[row >>> 6] |= word;
+            count += Long.bitCount(word);
+        }
+        for (; row < to; row++) {
+            if (ScalarScanKernel.matches(types, values, row, typeMask, minExclusive, maxExclusive, rowFilter)) {
+                selection[row >>> 6] |= 1L << row;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // End of the last whole 64-row block inside [from, to), or from when there is none
+    private static int alignedEnd(int from, int to) {
+        int end = to & -BLOCK;
+        return end > from ? end : from;
+    }
+
+    private static long selectBlock(byte[] types, double[] values, int row, int typeMask, double min, double max,
+                                    long[] rowFilter) {
+        long live = rowFilter == null ? -1L : rowFilter[row >>> 6];
+        if (live == 0) return 0;
+        long typeBits = typeBits(types, row, typeMask) & live;
+        if (typeBits == 0) return 0;
+        long valueBits = 0;
+        for (int k = 0; k < BLOCK; k += DOUBLES.length()) {
+            DoubleVector v = DoubleVector.fromArray(DOUBLES, values, row + k);
+            valueBits |= valueMask(v, min, max).toLong() << k;
+        }
+        return typeBits & valueBits;
+    }
+
+    private static long typeBits(byte[] types, int row, int typeMask) {
+        long bits = 0;
+        for (int k = 0; k < BLOCK; k += BYTES.length()) {
+            ByteVector t = ByteVector.fromArray(BYTES, types, row + k);
+            VectorMask<Byte> m = BYTES.maskAll(false);
+            for (int mask = typeMask; mask != 0; mask &= mask - 1) {
+                m = m.or(t.eq((byte) Integer.numberOfTrailingZeros(mask)));
+            }
+            bits |= m.toLong() << k;
+        }
+        return bits;
+    }
+
+    private static VectorMask<Double> valueMask(DoubleVector v, double min, double max) {
+        VectorMask<Double> m = min == Double.NEGATIVE_INFINITY
+                ? DOUBLES.maskAll(true) : v.compare(VectorOperators.GT, min);
+        return max == Double.POSITIVE_INFINITY ? m : m.and(v.compare(VectorOperators.LT, max));
+    }
+}
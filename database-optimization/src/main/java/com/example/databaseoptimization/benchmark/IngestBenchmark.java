@@ -0,0 +1,78 @@
+package com.example.databaseoptimization.benchmark;
+
+import com.example.databaseoptimization.dto.BulkImportResult;
+import com.example.databaseoptimization.model.Customer;
+import com.example.databaseoptimization.service.CustomerImportService;
+import com.example.databaseoptimization.service.CustomerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Rows per second of the one-row-per-request path (CustomerService.create, one transaction per row, as
+// POST /api/customers does) against the bulk import, on the in-memory database. HTTP is left out so
+// only the persistence paths are compared. Exits when done:
+//   mvn spring-boot:run -Dspring-boot.run.profiles=ingest-benchmark -Dspring-boot.run.arguments=--ingest.rows=50000
+@Component
+@Profile("ingest-benchmark")
+public class IngestBenchmark implements ApplicationRunner {
+    private final CustomerService customerService;
+    private final CustomerImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final int rows;
+
+    public IngestBenchmark(CustomerService customerService, CustomerImportService importService,
+                           ConfigurableApplicationContext context, @Value("${ingest.rows:20000}") int rows) {
+        this.customerService = customerService;
+        this.importService = importService;
+        this.context = context;
+        this.rows = rows;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        // Warm-up of both paths on their own emails
+        perRow("warmup", Math.min(rows, 2_000));
+        importService.importCustomers(ndjson("warmup-bulk", Math.min(rows, 2_000)), CustomerImportService.Mode.CREATE);
+
+        long start = System.nanoTime();
+        perRow("per-row", rows);
+        double perRowRate = rows * 1e9 / (System.nanoTime() - start);
+
+        BulkImportResult bulk = importService.importCustomers(ndjson("bulk", rows), CustomerImportService.Mode.CREATE);
+        BulkImportResult again = importService.importCustomers(ndjson("bulk", rows), CustomerImportService.Mode.CREATE);
+        BulkImportResult upsert = importService.importCustomers(ndjson("bulk", rows), CustomerImportService.Mode.UPSERT);
+
+        System.out.printf("per-row create: %,d rows at %,.0f rows/s%n", rows, perRowRate);
+        System.out.printf("bulk create:    %,d rows at %,.0f rows/s (%.1fx), created=%d failed=%d%n",
+                bulk.received(), bulk.rowsPerSecond(), bulk.rowsPerSecond() / perRowRate, bulk.created(), bulk.failed());
+        System.out.printf("bulk repeat:    %,d rows at %,.0f rows/s, created=%d failed=%d, first failure %s%n",
+                again.received(), again.rowsPerSecond(), again.created(), again.failed(),
+                again.failures().isEmpty() ? "-" : again.failures().get(0));
+        System.out.printf("bulk upsert:    %,d rows at %,.0f rows/s, updated=%d failed=%d%n",
+                upsert.received(), upsert.rowsPerSecond(), upsert.updated(), upsert.failed());
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private void perRow(String prefix, int count) {
+        for (int i = 0; i < count; i++) {
+            customerService.create(new Customer("Customer " + i, prefix + "-" + i + "@example.com"));
+        }
+    }
+
+    private static ByteArrayInputStream ndjson(String prefix, int count) {
+        StringBuilder sb = new StringBuilder(count * 64);
+        for (int i = 0; i < count; i++) {
+            sb.append("{\"name\":\"Customer ").append(i).append("\",\"email\":\"")
+                    .append(prefix).append('-').append(i).append("@example.com\"}\n");
+        }
+        return new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,28 +1,77 @@
 package com.example.databaseoptimization.controller;
 
+import com.example.databaseoptimization.dto.BulkImportResult;
+import com.example.databaseoptimization.dto.CustomerPage;
+import com.example.databaseoptimization.dto.CustomerView;
 import com.example.databaseoptimization.model.Customer;
+import com.example.databaseoptimization.service.CustomerImportService;
 import com.example.databaseoptimization.service.CustomerService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
     private final CustomerService service;
+    private final CustomerImportService importService;
 
-    public CustomerController(CustomerService service) {
+    public CustomerController(CustomerService service, CustomerImportService importService) {
         this.service = service;
+        this.importService = importService;
     }
 
     @GetMapping
-    public List<Customer> all() {
+    public List<CustomerView> all() {
         return service.findAll();
     }
 
+    @GetMapping("/page")
+    public CustomerPage page(@RequestParam(defaultValue = "0") long afterId,
+                             @RequestParam(defaultValue = "100") int size) {
+        try {
+            return service.findPage(afterId, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = service::exportJson;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Content-Disposition", "attachment; filename=\"customers.json\"")
+                .body(body);
+    }
+
+    // Accepts a JSON array or NDJSON; mode=upsert updates the name of customers whose email exists
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResult bulk(@RequestParam(defaultValue = "create") String mode, HttpServletRequest request)
+            throws IOException {
+        CustomerImportService.Mode importMode;
+        try {
+            importMode = CustomerImportService.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mode must be create or upsert, got " + mode);
+        }
+        try {
+            return importService.importCustomers(request.getInputStream(), importMode);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Customer> byId(@PathVariable Long id) {
         return service.findById(id)
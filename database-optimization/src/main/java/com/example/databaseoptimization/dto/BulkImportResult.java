@@ -0,0 +1,13 @@
+package com.example.databaseoptimization.dto;
+
+import java.util.List;
+
+// Outcome of a bulk import. Rows are numbered from 0 in payload order; failures lists at most the first
+// MAX_REPORTED_FAILURES of the failed rows.
+public record BulkImportResult(long received, long created, long updated, long failed,
+                               List<RowFailure> failures, long millis, double rowsPerSecond) {
+    public static final int MAX_REPORTED_FAILURES = 1000;
+
+    public record RowFailure(long row, String email, String reason) {
+    }
+}
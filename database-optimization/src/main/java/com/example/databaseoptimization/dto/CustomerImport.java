@@ -0,0 +1,12 @@
+package com.example.databaseoptimization.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+// One row of a bulk customer import, validated with the same rules as Customer. Unknown properties such
+// as an id are ignored.
+public record CustomerImport(
+        @NotBlank @Size(min = 2, max = 100) String name,
+        @Email @NotBlank String email) {
+}
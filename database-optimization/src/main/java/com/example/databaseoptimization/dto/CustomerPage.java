@@ -0,0 +1,8 @@
+package com.example.databaseoptimization.dto;
+
+import java.util.List;
+
+// One keyset page of customers in id order; nextAfterId is the afterId for the following page, or null
+// on the last page
+public record CustomerPage(List<CustomerView> items, Long nextAfterId) {
+}
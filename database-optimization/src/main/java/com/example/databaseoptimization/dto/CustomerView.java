@@ -0,0 +1,7 @@
+package com.example.databaseoptimization.dto;
+
+// Read-only customer projection, selected straight into this record by JPQL constructor expressions so
+// listings never load managed Customer entities (nothing in the persistence context, no dirty checking).
+// Serializes to the same JSON as the entity.
+public record CustomerView(Long id, String name, String email) {
+}
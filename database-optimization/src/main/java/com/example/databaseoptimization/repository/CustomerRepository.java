@@ -1,10 +1,41 @@
 package com.example.databaseoptimization.repository;
 
+import com.example.databaseoptimization.dto.CustomerView;
 import com.example.databaseoptimization.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
-}
\ No newline at end of file
+
+    List<Customer> findByEmailIn(Collection<String> emails);
+
+    @Query("select new com.example.databaseoptimization.dto.CustomerView(c.id, c.name, c.email) "
+            + "from Customer c order by c.id")
+    List<CustomerView> findAllViews();
+
+    // Seek pagination: an index range scan starting after the last id seen, however deep the page
+    @Query("select new com.example.databaseoptimization.dto.CustomerView(c.id, c.name, c.email) "
+            + "from Customer c where c.id > :afterId order by c.id")
+    List<CustomerView> findViewsAfter(@Param("afterId") long afterId, Limit limit);
+
+    // Cursor over every customer, fetched from the driver in chunks; must be consumed and closed
+    // inside a transaction
+    @Query("select new com.example.databaseoptimization.dto.CustomerView(c.id, c.name, c.email) "
+            + "from Customer c order by c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CustomerView> streamAllViews();
+}
@@ -0,0 +1,222 @@
+package com.example.databaseoptimization.service;
+
+import com.example.databaseoptimization.dto.BulkImportResult;
+import com.example.databaseoptimization.dto.CustomerImport;
+import com.example.databaseoptimization.model.Customer;
+import com.example.databaseoptimization.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Bulk customer import. The payload (a JSON array or NDJSON) is read row by row and written in chunks of
+// CHUNK_SIZE, one transaction each: invalid rows are rejected up front, existing emails are looked up with
+// one query per chunk, new customers are persisted and flushed as JDBC batches (see hibernate.jdbc.batch_size
+// and the pooled id sequence on Customer), and the persistence context is cleared so memory stays flat
+// however large the load. A duplicate email fails only its own row. If a chunk still hits the unique
+// constraint, e.g. from a concurrent writer, it is rolled back and replayed one row per transaction so
+// only the offending rows fail. Chunks committed before a malformed row stay committed.
+@Service
+public class CustomerImportService {
+    public static final int CHUNK_SIZE = 1000;
+
+    public enum Mode { CREATE, UPSERT }
+
+    private final CustomerRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactions;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public CustomerImportService(CustomerRepository repository, EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager, Validator validator,
+                                 ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    public BulkImportResult importCustomers(InputStream payload, Mode mode) throws IOException {
+        long start = System.nanoTime();
+        Tally tally = new Tally();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        // A root-level array is read element by element, like NDJSON lines
+        try (MappingIterator<CustomerImport> rows = objectMapper.readerFor(CustomerImport.class).readValues(payload)) {
+            while (hasNext(rows, tally.received)) {
+                chunk.add(new Row(tally.received++, next(rows, tally.received - 1)));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, mode, tally);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, mode, tally);
+        }
+        long nanos = System.nanoTime() - start;
+        return new BulkImportResult(tally.received, tally.created, tally.updated, tally.failed,
+                List.copyOf(tally.failures), nanos / 1_000_000, tally.received * 1e9 / Math.max(1, nanos));
+    }
+
+    private void writeChunk(List<Row> chunk, Mode mode, Tally tally) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            String problem = validate(row.data);
+            if (problem != null) {
+                tally.fail(row, problem);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) return;
+        try {
+            tally.add(transactions.execute(status -> write(valid, mode)));
+        } catch (DataAccessException | PersistenceException e) {
+            // A row failed at insert time, e.g. an email someone else inserted since the lookup or a value
+            // the column rejects; isolate the offending rows
+            for (Row row : valid) {
+                try {
+                    tally.add(transactions.execute(status -> write(List.of(row), mode)));
+                } catch (DataAccessException | PersistenceException rowFailure) {
+                    tally.fail(row, isUniqueViolation(rowFailure)
+                            ? "Email already exists"
+                            : "Insert failed: " + rootMessage(rowFailure));
+                }
+            }
+        }
+    }
+
+    // Runs inside a transaction; the outcome is only counted once it commits
+    private Outcome write(List<Row> rows, Mode mode) {
+        Outcome outcome = new Outcome();
+        Map<String, Customer> stored = new HashMap<>();
+        for (Customer existing : repository.findByEmailIn(rows.stream().map(r -> r.data.email()).toList())) {
+            stored.put(existing.getEmail(), existing);
+        }
+        Map<String, Customer> added = new HashMap<>();
+        for (Row row : rows) {
+            String email = row.data.email();
+            Customer customer = stored.get(email);
+            if (customer == null) customer = added.get(email);
+            if (customer == null) {
+                customer = new Customer(row.data.name(), email);
+                entityManager.persist(customer);
+                added.put(email, customer);
+                outcome.created++;
+            } else if (mode == Mode.UPSERT) {
+                // A later row for the same email wins
+                customer.setName(row.data.name());
+                outcome.updated++;
+            } else {
+                String reason = stored.containsKey(email) ? "Email already exists" : "Duplicate email in payload";
+                outcome.failures.add(new BulkImportResult.RowFailure(row.index, email, reason));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return outcome;
+    }
+
+    // Email is the only unique constraint on customer; 23505 is the standard SQLSTATE for a unique violation
+    private static boolean isUniqueViolation(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof DuplicateKeyException) return true;
+            if (t instanceof ConstraintViolationException cve
+                    && cve.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) return true;
+            if (t instanceof SQLException sql && "23505".equals(sql.getSQLState())) return true;
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable failure) {
+        Throwable root = failure;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
+
+    private String validate(CustomerImport data) {
+        if (data == null) return "Row is null";
+        return validator.validate(data).stream()
+                .sorted(Comparator.comparing((ConstraintViolation<CustomerImport> v) -> v.getPropertyPath().toString()))
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .collect(Collectors.collectingAndThen(Collectors.joining("; "), s -> s.isEmpty() ? null : s));
+    }
+
+    private static boolean hasNext(MappingIterator<CustomerImport> rows, long row) throws IOException {
+        try {
+            return rows.hasNextValue();
+        } catch (JsonProcessingException e) {
+            throw malformed(row, e);
+        }
+    }
+
+    private static CustomerImport next(MappingIterator<CustomerImport> rows, long row) throws IOException {
+        try {
+            return rows.nextValue();
+        } catch (JsonProcessingException e) {
+            throw malformed(row, e);
+        }
+    }
+
+    private static IllegalArgumentException malformed(long row, JsonProcessingException cause) {
+        return new IllegalArgumentException("Malformed payload at row " + row + " (rows before it were imported): "
+                + cause.getOriginalMessage(), cause);
+    }
+
+    private record Row(long index, CustomerImport data) {
+    }
+
+    private static final class Outcome {
+        long created;
+        long updated;
+        final List<BulkImportResult.RowFailure> failures = new ArrayList<>();
+    }
+
+    private static final class Tally {
+        long received;
+        long created;
+        long updated;
+        long failed;
+        final List<BulkImportResult.RowFailure> failures = new ArrayList<>();
+
+        void add(Outcome outcome) {
+            created += outcome.created;
+            updated += outcome.updated;
+            outcome.failures.forEach(f -> fail(f.row(), f.email(), f.reason()));
+        }
+
+        void fail(Row row, String reason) {
+            fail(row.index, row.data == null ? null : row.data.email(), reason);
+        }
+
+        void fail(long row, String email, String reason) {
+            failed++;
+            if (failures.size() < BulkImportResult.MAX_REPORTED_FAILURES) {
+                failures.add(new BulkImportResult.RowFailure(row, email, reason));
+            }
+        }
+    }
+}
@@ -1,24 +1,75 @@
 package com.example.databaseoptimization.service;
 
+import com.example.databaseoptimization.dto.CustomerPage;
+import com.example.databaseoptimization.dto.CustomerView;
 import com.example.databaseoptimization.model.Customer;
 import com.example.databaseoptimization.repository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class CustomerService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+
     private final CustomerRepository repository;
+    private final ObjectMapper objectMapper;
 
-    public CustomerService(CustomerRepository repository) {
+    public CustomerService(CustomerRepository repository, ObjectMapper objectMapper) {
         this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CustomerView> findAll() {
+        return repository.findAllViews();
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerPage findPage(long afterId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", got " + size);
+        }
+        // One extra row tells whether another page exists without a count query
+        List<CustomerView> rows = repository.findViewsAfter(afterId, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new CustomerPage(rows, null);
+        }
+        List<CustomerView> items = rows.subList(0, size);
+        return new CustomerPage(List.copyOf(items), items.get(size - 1).id());
     }
 
+    // Writes every customer as one JSON array while reading them through a database cursor, so neither
+    // the rows nor the JSON are ever held in memory in full. Returns the number of customers written.
     @Transactional(readOnly = true)
-    public List<Customer> findAll() {
-        return repository.findAll();
+    public long exportJson(OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<CustomerView> rows = repository.streamAllViews();
+             JsonGenerator json = objectMapper.createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // If the cursor fails midway, leave the array unterminated so the client sees a broken export
+            // rather than a valid-looking truncated one
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            json.writeStartArray();
+            for (Iterator<CustomerView> it = rows.iterator(); it.hasNext(); ) {
+                json.writeObject(it.next());
+                if (++written % EXPORT_FLUSH_ROWS == 0) {
+                    json.flush();
+                }
+            }
+            json.writeEndArray();
+        }
+        return written;
     }
 
     @Transactional(readOnly = true)
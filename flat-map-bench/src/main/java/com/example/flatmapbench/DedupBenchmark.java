@@ -0,0 +1,81 @@
+package com.example.flatmapbench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// FlatMapDemo's distinct() flatten and toMap group-by-department against the id-deduplicating collectors.
+// The feed is rebuilt per trial from a fixed seed; fewer distinct names means more duplicate department
+// records per name, which is where the toMap merge function's re-copying turns quadratic.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DedupBenchmark {
+    private static final long SEED = 42L;
+
+    @Param({"2000"})
+    int departments;
+
+    @Param({"20", "2000"})
+    int distinctNames;
+
+    @Param({"200"})
+    int employeesPerDepartment;
+
+    @Param({"100000"})
+    int distinctEmployees;
+
+    private List<?> feed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        feed = (List<?>) FlatMap.GENERATE_DEPARTMENTS.invokeExact(SEED, departments, distinctNames,
+                employeesPerDepartment, distinctEmployees);
+    }
+
+    @Benchmark
+    public List<?> streamDistinct() throws Throwable {
+        return (List<?>) FlatMap.STREAM_DISTINCT.invokeExact(feed);
+    }
+
+    @Benchmark
+    public List<?> collectorDistinct() throws Throwable {
+        return (List<?>) FlatMap.COLLECTOR_DISTINCT.invokeExact(feed);
+    }
+
+    @Benchmark
+    public List<?> parallelCollectorDistinct() throws Throwable {
+        return (List<?>) FlatMap.PARALLEL_COLLECTOR_DISTINCT.invokeExact(feed);
+    }
+
+    @Benchmark
+    public Map<?, ?> streamGroupByDepartment() throws Throwable {
+        return (Map<?, ?>) FlatMap.STREAM_GROUP.invokeExact(feed);
+    }
+
+    @Benchmark
+    public Map<?, ?> collectorGroupByDepartment() throws Throwable {
+        return (Map<?, ?>) FlatMap.COLLECTOR_GROUP.invokeExact(feed);
+    }
+
+    @Benchmark
+    public Map<?, ?> parallelCollectorGroupByDepartment() throws Throwable {
+        return (Map<?, ?>) FlatMap.PARALLEL_COLLECTOR_GROUP.invokeExact(feed);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.flatmapbench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+
+// Method-handle bridge to the unnamed-package FlatMapPipelines, like AnalyticApp in analytic-app-bench
+final class FlatMap {
+    // (long seed, int departments, int distinctNames, int employeesPerDepartment, int distinctEmployees)
+    //   -> List<Department>
+    static final MethodHandle GENERATE_DEPARTMENTS = find("generateDepartments",
+            MethodType.methodType(List.class, long.class, int.class, int.class, int.class, int.class));
+
+    // (List<Department>) -> List<Employee>
+    static final MethodHandle STREAM_DISTINCT = find("streamDistinct", MethodType.methodType(List.class, List.class));
+    static final MethodHandle COLLECTOR_DISTINCT = find("collectorDistinct", MethodType.methodType(List.class, List.class));
+    static final MethodHandle PARALLEL_COLLECTOR_DISTINCT = find("parallelCollectorDistinct",
+            MethodType.methodType(List.class, List.class));
+
+    // (List<Department>) -> Map<String, List<Employee>>
+    static final MethodHandle STREAM_GROUP = find("streamGroupByDepartment", MethodType.methodType(Map.class, List.class));
+    static final MethodHandle COLLECTOR_GROUP = find("collectorGroupByDepartment", MethodType.methodType(Map.class, List.class));
+    static final MethodHandle PARALLEL_COLLECTOR_GROUP = find("parallelCollectorGroupByDepartment",
+            MethodType.methodType(Map.class, List.class));
+
+    private FlatMap() {}
+
+    private static MethodHandle find(String method, MethodType type) {
+        try {
+            return MethodHandles.publicLookup().findStatic(Class.forName("FlatMapPipelines"), method, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("flat-map is missing FlatMapPipelines." + method + type, e);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Department {
     private final String name;
     private final List<Employee> employees;
+    private final List<DepartmentListener> listeners = new CopyOnWriteArrayList<>();
 
     public Department(String name, List<Employee> employees) {
         this.name = name;
@@ -22,6 +24,32 @@ public class Department {
     public void addEmployee(Employee employee) {
         if (employee != null) {
             employees.add(employee);
+            for (DepartmentListener listener : listeners) {
+                listener.employeeAdded(this, employee);
+            }
         }
     }
-}
\ No newline at end of file
+
+    // Removes one occurrence of an employee with the same id; listeners get the instance that was removed
+    public boolean removeEmployee(Employee employee) {
+        int index = employees.indexOf(employee);
+        if (employee == null || index < 0) {
+            return false;
+        }
+        Employee removed = employees.remove(index);
+        for (DepartmentListener listener : listeners) {
+            listener.employeeRemoved(this, removed);
+        }
+        return true;
+    }
+
+    public void addListener(DepartmentListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    public void removeListener(DepartmentListener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,166 @@
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Observable directory of departments. Registered departments report every addEmployee/removeEmployee,
+// and the directory updates its views incrementally: the distinct employee set and the per-department
+// and per-title views are segmented maps kept in step with per-id reference counts, so a mutation
+// touches at most one segment of each instead of recomputing the flatten and group-by over every
+// department. Writers are serialized by a lock; readers call snapshot(), a single volatile read of an
+// immutable DirectorySnapshot, and never wait for or block a writer. batch() publishes a group of
+// mutations as one snapshot and copies each touched segment once for the whole group, so bulk loads
+// should go through registerAll or batch.
+// A Department itself is not thread-safe: mutate each one from one thread at a time.
+public final class DepartmentDirectory {
+    static final int EMPLOYEE_SEGMENTS = 1024;
+    static final int DEPARTMENT_SEGMENTS = 64;
+    static final int MEMBER_SEGMENTS = 256;
+    static final int TITLE_SEGMENTS = 4;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Set<Department> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final DepartmentListener listener = new DepartmentListener() {
+        @Override
+        public void employeeAdded(Department department, Employee employee) {
+            write(() -> add(department.getName(), employee));
+        }
+
+        @Override
+        public void employeeRemoved(Department department, Employee employee) {
+            write(() -> remove(department.getName(), employee));
+        }
+    };
+
+    private volatile DirectorySnapshot current = DirectorySnapshot.EMPTY;
+
+    // Working state, guarded by writeLock and published when the outermost write ends
+    private final SegmentedMap.Editor<Integer, Employee> employees = current.employees().edit();
+    private final SegmentedMap.Editor<String, SegmentedMap<Integer, Employee>> departments =
+            current.departments().edit();
+    private final SegmentedMap.Editor<String, Integer> titleCounts = current.titles().edit();
+    // How many memberships reference each id, overall and per department name; only a count going
+    // between 0 and 1 changes a published view, so moves of already-listed employees copy nothing
+    private final Map<Integer, Integer> references = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> memberReferences = new HashMap<>();
+    // Member maps of the departments changed by the running write
+    private final Map<String, SegmentedMap.Editor<Integer, Employee>> changedDepartments = new HashMap<>();
+    private int writeDepth;
+
+    public DirectorySnapshot snapshot() {
+        return current;
+    }
+
+    // Adds the department's current employees to the views and follows its later mutations
+    public void register(Department department) {
+        registerAll(Collections.singletonList(department));
+    }
+
+    public void registerAll(Collection<Department> departments) {
+        if (departments == null || departments.contains(null)) {
+            throw new IllegalArgumentException("Departments must not be null");
+        }
+        write(() -> {
+            for (Department department : departments) {
+                if (!registered.add(department)) continue;
+                department.addListener(listener);
+                for (Employee employee : department.getEmployees()) {
+                    if (employee != null) add(department.getName(), employee);
+                }
+            }
+        });
+    }
+
+    // Stops following the department and takes its employees out of the views
+    public void unregister(Department department) {
+        write(() -> {
+            if (!registered.remove(department)) return;
+            department.removeListener(listener);
+            for (Employee employee : department.getEmployees()) {
+                if (employee != null) remove(department.getName(), employee);
+            }
+        });
+    }
+
+    // Runs mutations of registered departments so readers see either none or all of them
+    public void batch(Runnable mutations) {
+        if (mutations == null) {
+            throw new IllegalArgumentException("Mutations must not be null");
+        }
+        write(mutations);
+    }
+
+    private void write(Runnable mutation) {
+        writeLock.lock();
+        try {
+            writeDepth++;
+            try {
+                mutation.run();
+            } finally {
+                // Publish even after a failure: the departments already hold whatever was applied
+                if (--writeDepth == 0) publish();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void publish() {
+        changedDepartments.forEach((name, members) -> {
+            if (members.isEmpty()) {
+                departments.remove(name);
+            } else {
+                departments.put(name, members.publish());
+            }
+        });
+        changedDepartments.clear();
+        current = new DirectorySnapshot(current.version() + 1, employees.publish(), departments.publish(),
+                titleCounts.publish());
+    }
+
+    private SegmentedMap.Editor<Integer, Employee> members(String departmentName) {
+        return changedDepartments.computeIfAbsent(departmentName, name -> {
+            SegmentedMap<Integer, Employee> published = departments.get(name);
+            return published != null
+                    ? published.edit()
+                    : SegmentedMap.<Integer, Employee>empty(MEMBER_SEGMENTS).edit();
+        });
+    }
+
+    private void add(String departmentName, Employee employee) {
+        Integer id = employee.getId();
+        if (references.merge(id, 1, Integer::sum) == 1) {
+            employees.put(id, employee);
+            titleCounts.put(employee.getTitle(), titleCounts.getOrDefault(employee.getTitle(), 0) + 1);
+        }
+        Map<Integer, Integer> memberRefs = memberReferences.computeIfAbsent(departmentName, name -> new HashMap<>());
+        if (memberRefs.merge(id, 1, Integer::sum) == 1) {
+            members(departmentName).put(id, employee);
+        }
+    }
+
+    private void remove(String departmentName, Employee employee) {
+        Integer id = employee.getId();
+        Map<Integer, Integer> memberRefs = memberReferences.get(departmentName);
+        if (memberRefs == null || !memberRefs.containsKey(id)) return;
+        if (memberRefs.merge(id, -1, Integer::sum) == 0) {
+            memberRefs.remove(id);
+            if (memberRefs.isEmpty()) memberReferences.remove(departmentName);
+            members(departmentName).remove(id);
+        }
+        if (references.merge(id, -1, Integer::sum) == 0) {
+            references.remove(id);
+            String title = employees.get(id).getTitle();
+            int count = titleCounts.getOrDefault(title, 0);
+            if (count <= 1) {
+                titleCounts.remove(title);
+            } else {
+                titleCounts.put(title, count - 1);
+            }
+            employees.remove(id);
+        }
+    }
+}
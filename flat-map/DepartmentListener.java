@@ -0,0 +1,6 @@
+// Notified after a Department's employee list changed, on the thread that changed it
+public interface DepartmentListener {
+    void employeeAdded(Department department, Employee employee);
+
+    void employeeRemoved(Department department, Employee employee);
+}
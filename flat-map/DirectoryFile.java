@@ -0,0 +1,313 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Compact binary snapshot of a List<Department>, read back through a memory-mapped file. Everything is
+// stored as int columns, with names and titles as references into one shared, deduplicated UTF-8 string
+// table:
+//   header   magic, format version, string count, employee count, department count, membership count
+//   strings  (count + 1) byte offsets, then the UTF-8 bytes
+//   employees id, name ref, title ref per distinct employee, rows sorted by id
+//   depts    name ref and (count + 1) member offsets per department
+//   members  employee row of every membership, department by department in list order
+// A null string is stored as ref -1. open() only maps the file and checks the header, so startup cost and
+// heap use do not grow with the directory; employees and departments are built from the columns when
+// read, and looking up an id binary-searches the mapped id column. Instances are created per access:
+// hold on to what you use. Titles, having few distinct values, are decoded once and shared.
+public final class DirectoryFile {
+    private static final int MAGIC = 0x464D4453; // "FMDS"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 6 * Integer.BYTES;
+    private static final int NULL_REF = -1;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int employeeCount;
+    private final int departmentCount;
+    private final int stringOffsetsAt;
+    private final int stringBytesAt;
+    private final int idsAt;
+    private final int nameRefsAt;
+    private final int titleRefsAt;
+    private final int deptNameRefsAt;
+    private final int memberOffsetsAt;
+    private final int membersAt;
+    private final Map<Integer, String> titles = new ConcurrentHashMap<>();
+
+    private DirectoryFile(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a directory snapshot file");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot format version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.stringCount = buffer.getInt(8);
+        this.employeeCount = buffer.getInt(12);
+        this.departmentCount = buffer.getInt(16);
+        int membershipCount = buffer.getInt(20);
+        this.stringOffsetsAt = HEADER_BYTES;
+        this.stringBytesAt = stringOffsetsAt + (stringCount + 1) * Integer.BYTES;
+        this.idsAt = stringBytesAt + buffer.getInt(stringOffsetsAt + stringCount * Integer.BYTES);
+        this.nameRefsAt = idsAt + employeeCount * Integer.BYTES;
+        this.titleRefsAt = nameRefsAt + employeeCount * Integer.BYTES;
+        this.deptNameRefsAt = titleRefsAt + employeeCount * Integer.BYTES;
+        this.memberOffsetsAt = deptNameRefsAt + departmentCount * Integer.BYTES;
+        this.membersAt = memberOffsetsAt + (departmentCount + 1) * Integer.BYTES;
+        if ((long) membersAt + (long) membershipCount * Integer.BYTES != buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated or corrupt snapshot: expected "
+                    + ((long) membersAt + (long) membershipCount * Integer.BYTES) + " bytes, found " + buffer.capacity());
+        }
+    }
+
+    public static void write(List<Department> departments, Path file) throws IOException {
+        if (departments == null || file == null) {
+            throw new IllegalArgumentException("Departments and file must not be null");
+        }
+        // Distinct employees by id, the first instance seen representing each
+        List<Employee> distinct = departments.stream().collect(EmployeeCollectors.flatteningDistinct());
+        TreeMap<Integer, Employee> byId = new TreeMap<>();
+        for (Employee e : distinct) {
+            byId.put(e.getId(), e);
+        }
+        Map<Integer, Integer> rowOf = new HashMap<>(byId.size() * 2);
+        StringTable strings = new StringTable();
+        int[] ids = new int[byId.size()];
+        int[] nameRefs = new int[ids.length];
+        int[] titleRefs = new int[ids.length];
+        int row = 0;
+        for (Employee e : byId.values()) {
+            rowOf.put(e.getId(), row);
+            ids[row] = e.getId();
+            nameRefs[row] = strings.ref(e.getName());
+            titleRefs[row] = strings.ref(e.getTitle());
+            row++;
+        }
+        List<Department> present = new ArrayList<>(departments.size());
+        for (Department d : departments) {
+            if (d != null) present.add(d);
+        }
+        int membershipCount = 0;
+        for (Department d : present) {
+            membershipCount += d.getEmployees().size();
+        }
+        int[] deptNameRefs = new int[present.size()];
+        int[] memberOffsets = new int[present.size() + 1];
+        int[] members = new int[membershipCount];
+        int m = 0;
+        for (int d = 0; d < present.size(); d++) {
+            deptNameRefs[d] = strings.ref(present.get(d).getName());
+            for (Employee e : present.get(d).getEmployees()) {
+                if (e != null) members[m++] = rowOf.get(e.getId());
+            }
+            memberOffsets[d + 1] = m;
+        }
+
+        long size = HEADER_BYTES + (strings.count() + 1L) * Integer.BYTES + strings.byteCount()
+                + 3L * ids.length * Integer.BYTES + (2L * present.size() + 1) * Integer.BYTES
+                + (long) m * Integer.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Directory too large for one snapshot file: " + size + " bytes");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(strings.count()).putInt(ids.length)
+                .putInt(present.size()).putInt(m);
+        strings.writeTo(out);
+        putAll(out, ids, ids.length);
+        putAll(out, nameRefs, nameRefs.length);
+        putAll(out, titleRefs, titleRefs.length);
+        putAll(out, deptNameRefs, deptNameRefs.length);
+        putAll(out, memberOffsets, memberOffsets.length);
+        putAll(out, members, m);
+        out.flip();
+        // Readers may still have the old file mapped: truncating it in place would fault them, so write a
+        // sibling file and swap it in; open mappings keep the old contents
+        Path absolute = file.toAbsolutePath();
+        Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(false);
+            }
+            Files.move(tmp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // Maps the file read-only; the mapping stays valid after the channel is closed
+    public static DirectoryFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot file too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new DirectoryFile(mapped);
+        }
+    }
+
+    public int employeeCount() {
+        return employeeCount;
+    }
+
+    public int departmentCount() {
+        return departmentCount;
+    }
+
+    // The employee with this id, or null
+    public Employee employee(int id) {
+        int lo = 0, hi = employeeCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = intAt(idsAt, mid);
+            if (midId < id) {
+                lo = mid + 1;
+            } else if (midId > id) {
+                hi = mid - 1;
+            } else {
+                return employeeAt(mid);
+            }
+        }
+        return null;
+    }
+
+    // Distinct employees in id order, each built when read
+    public List<Employee> employees() {
+        return new AbstractList<Employee>() {
+            @Override
+            public Employee get(int index) {
+                return employeeAt(checkIndex(index, employeeCount));
+            }
+
+            @Override
+            public int size() {
+                return employeeCount;
+            }
+        };
+    }
+
+    // Departments in their original order, each built with its employees when read
+    public List<Department> departments() {
+        return new AbstractList<Department>() {
+            @Override
+            public Department get(int index) {
+                return departmentAt(checkIndex(index, departmentCount));
+            }
+
+            @Override
+            public int size() {
+                return departmentCount;
+            }
+        };
+    }
+
+    public String departmentName(int index) {
+        return string(intAt(deptNameRefsAt, checkIndex(index, departmentCount)));
+    }
+
+    @Override
+    public String toString() {
+        return "DirectoryFile{" +
+                "employees=" + employeeCount +
+                ", departments=" + departmentCount +
+                ", strings=" + stringCount +
+                ", bytes=" + buffer.capacity() +
+                '}';
+    }
+
+    private Employee employeeAt(int row) {
+        return new Employee(intAt(idsAt, row), string(intAt(nameRefsAt, row)), title(intAt(titleRefsAt, row)));
+    }
+
+    private Department departmentAt(int index) {
+        int from = intAt(memberOffsetsAt, index);
+        int to = intAt(memberOffsetsAt, index + 1);
+        List<Employee> employees = new ArrayList<>(to - from);
+        for (int m = from; m < to; m++) {
+            employees.add(employeeAt(intAt(membersAt, m)));
+        }
+        return new Department(string(intAt(deptNameRefsAt, index)), employees);
+    }
+
+    private String title(int ref) {
+        return ref == NULL_REF ? null : titles.computeIfAbsent(ref, this::string);
+    }
+
+    private String string(int ref) {
+        if (ref == NULL_REF) return null;
+        int from = intAt(stringOffsetsAt, ref);
+        int to = intAt(stringOffsetsAt, ref + 1);
+        byte[] bytes = new byte[to - from];
+        buffer.get(stringBytesAt + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int intAt(int columnAt, int index) {
+        return buffer.getInt(columnAt + index * Integer.BYTES);
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+
+    private static void putAll(ByteBuffer out, int[] values, int count) {
+        out.asIntBuffer().put(values, 0, count);
+        out.position(out.position() + count * Integer.BYTES);
+    }
+
+    // Deduplicating string table built while writing
+    private static final class StringTable {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+        private long byteCount;
+
+        int ref(String s) {
+            if (s == null) return NULL_REF;
+            return refs.computeIfAbsent(s, key -> {
+                byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                byteCount += bytes.length;
+                return encoded.size() - 1;
+            });
+        }
+
+        int count() {
+            return encoded.size();
+        }
+
+        long byteCount() {
+            return byteCount;
+        }
+
+        void writeTo(ByteBuffer out) {
+            int offset = 0;
+            out.putInt(offset);
+            for (byte[] bytes : encoded) {
+                offset += bytes.length;
+                out.putInt(offset);
+            }
+            for (byte[] bytes : encoded) {
+                out.put(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable, mutually consistent state of every view of a DepartmentDirectory as of one version: the
+// distinct employees across all departments, each department name's distinct employees, and the number
+// of distinct employees per title. Holding a snapshot never blocks the directory's writers. An id is
+// represented by the first instance registered for it; list views come in no particular order.
+public final class DirectorySnapshot {
+    static final DirectorySnapshot EMPTY = new DirectorySnapshot(0,
+            SegmentedMap.empty(DepartmentDirectory.EMPLOYEE_SEGMENTS),
+            SegmentedMap.empty(DepartmentDirectory.DEPARTMENT_SEGMENTS),
+            SegmentedMap.empty(DepartmentDirectory.TITLE_SEGMENTS));
+
+    private final long version;
+    private final SegmentedMap<Integer, Employee> employees;
+    private final SegmentedMap<String, SegmentedMap<Integer, Employee>> departments;
+    private final SegmentedMap<String, Integer> titleCounts;
+
+    DirectorySnapshot(long version, SegmentedMap<Integer, Employee> employees,
+                      SegmentedMap<String, SegmentedMap<Integer, Employee>> departments,
+                      SegmentedMap<String, Integer> titleCounts) {
+        this.version = version;
+        this.employees = employees;
+        this.departments = departments;
+        this.titleCounts = titleCounts;
+    }
+
+    // Increases by one per published change (a single mutation or a whole batch)
+    public long version() {
+        return version;
+    }
+
+    public int employeeCount() {
+        return employees.size();
+    }
+
+    public boolean containsEmployee(int id) {
+        return employees.get(id) != null;
+    }
+
+    public List<Employee> distinctEmployees() {
+        return members(employees);
+    }
+
+    public int departmentCount() {
+        return departments.size();
+    }
+
+    // Distinct employees of every department with this name; empty when there are none
+    public List<Employee> employeesOf(String departmentName) {
+        SegmentedMap<Integer, Employee> members = departments.get(departmentName);
+        return members == null ? Collections.emptyList() : members(members);
+    }
+
+    public Map<String, List<Employee>> employeesByDepartment() {
+        Map<String, List<Employee>> result = new HashMap<>();
+        departments.forEach((name, members) -> result.put(name, members(members)));
+        return result;
+    }
+
+    public int titleCount(String title) {
+        return titleCounts.getOrDefault(title, 0);
+    }
+
+    public Map<String, Integer> titleCounts() {
+        Map<String, Integer> result = new HashMap<>();
+        titleCounts.forEach(result::put);
+        return result;
+    }
+
+    SegmentedMap<Integer, Employee> employees() {
+        return employees;
+    }
+
+    SegmentedMap<String, SegmentedMap<Integer, Employee>> departments() {
+        return departments;
+    }
+
+    SegmentedMap<String, Integer> titles() {
+        return titleCounts;
+    }
+
+    private static List<Employee> members(SegmentedMap<Integer, Employee> entries) {
+        List<Employee> result = new ArrayList<>(entries.size());
+        entries.forEach((id, employee) -> result.add(employee));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectorySnapshot{" +
+                "version=" + version +
+                ", employees=" + employees.size() +
+                ", departments=" + departments.size() +
+                ", titles=" + titleCounts.size() +
+                '}';
+    }
+
+}
@@ -0,0 +1,73 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+// Deduplicating collectors for the Department/Employee model. Employees are deduplicated by int id in a
+// primitive IntHashSet, so there is no boxing and no equals() call per element, and same-named departments
+// are merged by appending only the employees not seen yet, in O(total employees) rather than re-copying
+// and re-streaming both lists on every duplicate name as the toMap merge function does. Accumulators
+// merge pairwise, so all of these work on parallel streams and keep first-encounter order like distinct().
+// Null departments and null employees are skipped.
+public final class EmployeeCollectors {
+    private EmployeeCollectors() {}
+
+    public static Collector<Employee, ?, List<Employee>> distinctById() {
+        return Collector.of(DistinctEmployees::new, DistinctEmployees::add, DistinctEmployees::merge,
+                d -> d.employees);
+    }
+
+    // Flattens every department's employees into one list without duplicates
+    public static Collector<Department, ?, List<Employee>> flatteningDistinct() {
+        return Collector.of(DistinctEmployees::new, DistinctEmployees::addAll, DistinctEmployees::merge,
+                d -> d.employees);
+    }
+
+    // Department name -> its distinct employees, merging departments that share a name; names keep
+    // first-encounter order
+    public static Collector<Department, ?, Map<String, List<Employee>>> groupingByDepartment() {
+        return Collector.of(
+                LinkedHashMap<String, DistinctEmployees>::new,
+                (groups, dept) -> {
+                    if (dept != null) {
+                        groups.computeIfAbsent(dept.getName(), name -> new DistinctEmployees()).addAll(dept);
+                    }
+                },
+                (left, right) -> {
+                    right.forEach((name, employees) -> left.merge(name, employees, DistinctEmployees::merge));
+                    return left;
+                },
+                groups -> {
+                    Map<String, List<Employee>> result = new LinkedHashMap<>();
+                    groups.forEach((name, employees) -> result.put(name, employees.employees));
+                    return result;
+                });
+    }
+
+    // Ids seen so far plus the employees in first-seen order
+    private static final class DistinctEmployees {
+        final IntHashSet ids = new IntHashSet();
+        final List<Employee> employees = new ArrayList<>();
+
+        void add(Employee e) {
+            if (e != null && ids.add(e.getId())) {
+                employees.add(e);
+            }
+        }
+
+        void addAll(Department dept) {
+            if (dept == null) return;
+            for (Employee e : dept.getEmployees()) {
+                add(e);
+            }
+        }
+
+        DistinctEmployees merge(DistinctEmployees other) {
+            for (Employee e : other.employees) {
+                add(e);
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Read-only inverted index over the distinct employees of a list of departments, so lookups stop
+// flattening and filtering every department. Titles have very low cardinality and are interned into a
+// small table, each with one IdPostings; names are indexed case-insensitively by prefix: prefixes of up
+// to PRECOMPUTED_PREFIX characters have ready postings (the short, broad ones that would match the most
+// names), and longer prefixes binary-search a sorted name array and sort only the matching range.
+// Postings combine with IdPostings.and/or/andNot; employee(id) and employees(postings) resolve the ids.
+// The index is a point-in-time copy: rebuild it after the departments change.
+public final class EmployeeIndex {
+    private static final int PRECOMPUTED_PREFIX = 3;
+
+    // Distinct employees sorted by id
+    private final int[] ids;
+    private final Employee[] employees;
+    private final IdPostings all;
+    private final String[] titles;
+    private final Map<String, Integer> titleCodes;
+    private final IdPostings[] titlePostings;
+    private final Map<String, IdPostings> shortPrefixes;
+    // Lower-cased names in order, with the id of each
+    private final String[] sortedNames;
+    private final int[] sortedNameIds;
+
+    private EmployeeIndex(Employee[] employees, Map<String, IdPostings> byTitle, Map<String, IdPostings> shortPrefixes,
+                          String[] sortedNames, int[] sortedNameIds) {
+        this.employees = employees;
+        this.ids = new int[employees.length];
+        for (int i = 0; i < employees.length; i++) {
+            ids[i] = employees[i].getId();
+        }
+        this.all = IdPostings.wrap(ids.clone());
+        this.titles = byTitle.keySet().toArray(new String[0]);
+        Arrays.sort(titles);
+        this.titleCodes = new HashMap<>();
+        this.titlePostings = new IdPostings[titles.length];
+        for (int code = 0; code < titles.length; code++) {
+            titleCodes.put(titles[code], code);
+            titlePostings[code] = byTitle.get(titles[code]);
+        }
+        this.shortPrefixes = shortPrefixes;
+        this.sortedNames = sortedNames;
+        this.sortedNameIds = sortedNameIds;
+    }
+
+    // Builds on the common pool: departments are flattened, sorted and indexed with parallel streams
+    public static EmployeeIndex build(List<Department> departments) {
+        if (departments == null) {
+            throw new IllegalArgumentException("Departments must not be null");
+        }
+        Employee[] employees = departments.parallelStream()
+                .collect(EmployeeCollectors.flatteningDistinct())
+                .toArray(new Employee[0]);
+        Arrays.parallelSort(employees, Comparator.comparingInt(Employee::getId));
+
+        // Chunks see ids in ascending order and combine in encounter order, so every posting comes out sorted
+        PostingsBuilder postings = IntStream.range(0, employees.length).parallel()
+                .collect(PostingsBuilder::new, (b, i) -> b.add(employees[i]), PostingsBuilder::append);
+
+        NameEntry[] names = Arrays.stream(employees).parallel()
+                .filter(e -> e.getName() != null)
+                .map(e -> new NameEntry(e.getName().toLowerCase(Locale.ROOT), e.getId()))
+                .toArray(NameEntry[]::new);
+        Arrays.parallelSort(names, Comparator.comparing((NameEntry n) -> n.name).thenComparingInt(n -> n.id));
+        String[] sortedNames = new String[names.length];
+        int[] sortedNameIds = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            sortedNames[i] = names[i].name;
+            sortedNameIds[i] = names[i].id;
+        }
+        return new EmployeeIndex(employees, freeze(postings.titles), freeze(postings.prefixes), sortedNames,
+                sortedNameIds);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public List<String> titles() {
+        return Collections.unmodifiableList(Arrays.asList(titles));
+    }
+
+    public IdPostings all() {
+        return all;
+    }
+
+    public IdPostings title(String title) {
+        Integer code = titleCodes.get(title);
+        return code == null ? IdPostings.EMPTY : titlePostings[code];
+    }
+
+    // Employees whose name starts with prefix, ignoring case; the empty prefix matches every named employee
+    public IdPostings namePrefix(String prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("Prefix must not be null");
+        }
+        String key = prefix.toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return IdPostings.of(sortedNameIds);
+        }
+        if (key.length() <= PRECOMPUTED_PREFIX) {
+            return shortPrefixes.getOrDefault(key, IdPostings.EMPTY);
+        }
+        // First name >= key; Arrays.binarySearch may land on any of several names equal to key
+        int lo = 0, hi = sortedNames.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedNames[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int from = lo;
+        // Names starting with key are contiguous from `from`; everything after them sorts higher
+        hi = sortedNames.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedNames[mid].startsWith(key)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int[] matches = Arrays.copyOfRange(sortedNameIds, from, lo);
+        Arrays.sort(matches);
+        return IdPostings.wrap(matches);
+    }
+
+    public Employee employee(int id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i < 0 ? null : employees[i];
+    }
+
+    // Resolves postings to employees in id order; ids not in this index are skipped
+    public List<Employee> employees(IdPostings postings) {
+        List<Employee> result = new ArrayList<>(postings.size());
+        int from = 0;
+        for (int id : postings.toArray()) {
+            int i = Arrays.binarySearch(ids, from, ids.length, id);
+            if (i < 0) {
+                from = -i - 1;
+            } else {
+                result.add(employees[i]);
+                from = i + 1;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeIndex{" +
+                "employees=" + ids.length +
+                ", titles=" + titles.length +
+                ", shortPrefixes=" + shortPrefixes.size() +
+                '}';
+    }
+
+    private static Map<String, IdPostings> freeze(Map<String, IdBuffer> buffers) {
+        Map<String, IdPostings> result = new HashMap<>(buffers.size() * 2);
+        buffers.forEach((key, buffer) -> result.put(key, IdPostings.wrap(buffer.toArray())));
+        return result;
+    }
+
+    // Title and short-prefix postings for one chunk of the id-sorted employees
+    private static final class PostingsBuilder {
+        final Map<String, IdBuffer> titles = new HashMap<>();
+        final Map<String, IdBuffer> prefixes = new HashMap<>();
+
+        void add(Employee e) {
+            if (e.getTitle() != null) {
+                titles.computeIfAbsent(e.getTitle(), t -> new IdBuffer()).add(e.getId());
+            }
+            if (e.getName() != null) {
+                String name = e.getName().toLowerCase(Locale.ROOT);
+                for (int length = 1; length <= Math.min(PRECOMPUTED_PREFIX, name.length()); length++) {
+                    prefixes.computeIfAbsent(name.substring(0, length), p -> new IdBuffer()).add(e.getId());
+                }
+            }
+        }
+
+        // other holds the chunk right after this one
+        void append(PostingsBuilder other) {
+            other.titles.forEach((key, ids) -> titles.merge(key, ids, IdBuffer::append));
+            other.prefixes.forEach((key, ids) -> prefixes.merge(key, ids, IdBuffer::append));
+        }
+    }
+
+    private static final class IdBuffer {
+        int[] ids = new int[8];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+
+        IdBuffer append(IdBuffer other) {
+            if (size + other.size > ids.length) ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + other.size));
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+            return this;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+
+    private static final class NameEntry {
+        final String name;
+        final int id;
+
+        NameEntry(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+}
@@ -1,12 +1,18 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 public class FlatMapDemo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         // Create employees
         Employee alice = new Employee(1, "Alice", "Engineer");
         Employee bob = new Employee(2, "Bob", "Engineer");
@@ -21,37 +27,197 @@ public class FlatMapDemo {
         List<Department> departments = Arrays.asList(engineering, design, management);
 
         // Use flatMap to flatten department employee lists into a single stream
-        List<Employee> allEmployees = departments.stream()
-                .filter(dept -> dept != null)
-                .flatMap(dept -> dept.getEmployees().stream())
-                .distinct()
-                .collect(Collectors.toList());
+        List<Employee> allEmployees = FlatMapPipelines.streamDistinct(departments);
 
         // Print flattened list
         System.out.println("All employees (flattened):");
         allEmployees.forEach(System.out::println);
 
         // Group employees department-wise
-        Map<String, List<Employee>> employeesByDept = departments.stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                        Department::getName,
-                        d -> d.getEmployees().stream()
-                                .filter(Objects::nonNull)
-                                .distinct()
-                                .collect(Collectors.toList()),
-                        (left, right) -> {
-                            List<Employee> merged = new java.util.ArrayList<>(left);
-                            merged.addAll(right);
-                            return merged.stream().distinct().collect(Collectors.toList());
-                        },
-                        LinkedHashMap::new
-                ));
+        Map<String, List<Employee>> employeesByDept = FlatMapPipelines.streamGroupByDepartment(departments);
 
         System.out.println("\nEmployees department-wise:");
         employeesByDept.forEach((deptName, emps) -> {
             System.out.println(deptName + ":");
             emps.forEach(e -> System.out.println("  " + e));
         });
+
+        // Same results from the id-deduplicating collectors
+        List<Employee> allEmployeesCollected = departments.stream().collect(EmployeeCollectors.flatteningDistinct());
+        Map<String, List<Employee>> employeesByDeptCollected = departments.stream()
+                .collect(EmployeeCollectors.groupingByDepartment());
+        System.out.println("\nCollectors equal: " + (allEmployees.equals(allEmployeesCollected)
+                && employeesByDept.equals(employeesByDeptCollected)));
+
+        // A feed where many department records share a few names: the toMap merge re-copies per duplicate
+        List<Department> feed = FlatMapPipelines.generateDepartments(42, 2_000, 20, 200, 100_000);
+        long t1 = System.nanoTime();
+        Map<String, List<Employee>> feedByStream = FlatMapPipelines.streamGroupByDepartment(feed);
+        long d1 = (System.nanoTime() - t1) / 1_000_000;
+        long t2 = System.nanoTime();
+        Map<String, List<Employee>> feedByCollector = FlatMapPipelines.collectorGroupByDepartment(feed);
+        long d2 = (System.nanoTime() - t2) / 1_000_000;
+        long t3 = System.nanoTime();
+        Map<String, List<Employee>> feedByParallel = FlatMapPipelines.parallelCollectorGroupByDepartment(feed);
+        long d3 = (System.nanoTime() - t3) / 1_000_000;
+        long t4 = System.nanoTime();
+        List<Employee> feedDistinct = FlatMapPipelines.streamDistinct(feed);
+        long d4 = (System.nanoTime() - t4) / 1_000_000;
+        long t5 = System.nanoTime();
+        List<Employee> feedDistinctCollected = FlatMapPipelines.parallelCollectorDistinct(feed);
+        long d5 = (System.nanoTime() - t5) / 1_000_000;
+
+        System.out.println("\nFeed of " + feed.size() + " department records, " + feedByStream.size() + " names:");
+        System.out.println("group toMap merge: " + d1 + " ms, collector: " + d2 + " ms, parallel collector: " + d3 + " ms");
+        System.out.println("distinct(): " + d4 + " ms, parallel id collector: " + d5 + " ms (" + feedDistinct.size() + " employees)");
+        System.out.println("Feed collectors equal: " + (feedByStream.equals(feedByCollector)
+                && feedByStream.equals(feedByParallel) && feedDistinct.equals(feedDistinctCollected)));
+
+        // Answer lookups from an inverted index instead of flattening and filtering every department
+        long t9 = System.nanoTime();
+        EmployeeIndex index = EmployeeIndex.build(feed);
+        long d9 = (System.nanoTime() - t9) / 1_000_000;
+        int queries = 10_000;
+        IdPostings engineersAl = null;
+        IdPostings alice12Senior = null;
+        long t10 = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            engineersAl = index.title("Engineer").and(index.namePrefix("Al"));
+            // Intersect the narrow prefix first so the union only sees its few matches
+            IdPostings alice12 = index.namePrefix("alice 12");
+            alice12Senior = alice12.and(index.title("Manager")).or(alice12.and(index.title("Analyst")));
+        }
+        long d10 = (System.nanoTime() - t10) / queries / 1_000;
+        long t11 = System.nanoTime();
+        List<Employee> scanEngineersAl = feedDistinct.stream()
+                .filter(e -> "Engineer".equals(e.getTitle()) && e.getName().toLowerCase().startsWith("al"))
+                .collect(Collectors.toList());
+        List<Employee> scanAlice12Senior = feedDistinct.stream()
+                .filter(e -> e.getName().toLowerCase().startsWith("alice 12")
+                        && ("Manager".equals(e.getTitle()) || "Analyst".equals(e.getTitle())))
+                .collect(Collectors.toList());
+        long d11 = (System.nanoTime() - t11) / 1_000;
+        System.out.println("\n" + index + " built in " + d9 + " ms");
+        System.out.println("two indexed queries: " + d10 + " us, same two by scan: " + d11 + " us ("
+                + engineersAl.size() + " and " + alice12Senior.size() + " matches)");
+        // Several employees whose full name equals the prefix exactly, next to a longer match
+        List<Employee> namesakes = new ArrayList<>();
+        for (int id = 1; id <= 7; id++) {
+            namesakes.add(new Employee(id, "Alice Smith", "Engineer"));
+        }
+        namesakes.add(new Employee(8, "Alice Smithers", "Engineer"));
+        namesakes.add(new Employee(9, "Alice Smit", "Engineer"));
+        EmployeeIndex namesakeIndex = EmployeeIndex.build(List.of(new Department("Namesakes", namesakes)));
+        List<Employee> scanNamesakes = namesakes.stream()
+                .filter(e -> e.getName().toLowerCase().startsWith("alice smith"))
+                .collect(Collectors.toList());
+        System.out.println("Index results equal: " + (sameIds(index.employees(engineersAl), scanEngineersAl)
+                && sameIds(index.employees(alice12Senior), scanAlice12Senior)
+                && sameIds(namesakeIndex.employees(namesakeIndex.namePrefix("Alice Smith")), scanNamesakes)));
+
+        // Reload the feed from a memory-mapped snapshot instead of rebuilding every object up front
+        Path snapshotFile = Files.createTempFile("departments", ".fmds");
+        snapshotFile.toFile().deleteOnExit();
+        long t12 = System.nanoTime();
+        DirectoryFile.write(feed, snapshotFile);
+        long d12 = (System.nanoTime() - t12) / 1_000_000;
+        DirectoryFile.open(snapshotFile).employee(1); // warm-up: the first mapping loads the NIO classes
+        long t13 = System.nanoTime();
+        DirectoryFile loaded = DirectoryFile.open(snapshotFile);
+        Employee looked = loaded.employee(feedDistinct.get(feedDistinct.size() / 2).getId());
+        long d13 = (System.nanoTime() - t13) / 1_000;
+        long t14 = System.nanoTime();
+        List<Department> reloaded = new ArrayList<>(loaded.departments());
+        long d14 = (System.nanoTime() - t14) / 1_000_000;
+        boolean snapshotEqual = reloaded.size() == feed.size() && looked != null
+                && looked.getName().equals(feedDistinct.get(feedDistinct.size() / 2).getName());
+        for (int i = 0; snapshotEqual && i < feed.size(); i++) {
+            snapshotEqual = feed.get(i).getName().equals(reloaded.get(i).getName())
+                    && sameEmployees(feed.get(i).getEmployees(), reloaded.get(i).getEmployees());
+        }
+        System.out.println("\n" + loaded + ": write " + d12 + " ms, open + one lookup " + d13
+                + " us, materialize all departments " + d14 + " ms");
+        System.out.println("Snapshot round trip equal: " + snapshotEqual);
+
+        // Keep the views up to date from small deltas instead of recomputing them over the whole feed
+        DepartmentDirectory directory = new DepartmentDirectory();
+        long t6 = System.nanoTime();
+        directory.registerAll(feed);
+        long d6 = (System.nanoTime() - t6) / 1_000_000;
+        DirectorySnapshot before = directory.snapshot();
+        List<Employee> beforeDistinct = FlatMapPipelines.collectorDistinct(feed);
+        Map<String, List<Employee>> beforeByDept = FlatMapPipelines.collectorGroupByDepartment(feed);
+
+        SplittableRandom random = new SplittableRandom(7);
+        int deltas = 20_000;
+        long t7 = System.nanoTime();
+        for (int i = 0; i < deltas; i++) {
+            Department from = feed.get(random.nextInt(feed.size()));
+            Department to = feed.get(random.nextInt(feed.size()));
+            if (i % 10 == 0) {
+                to.addEmployee(new Employee(200_000 + i, "Hire " + i, "Engineer"));
+            } else if (!from.getEmployees().isEmpty()) {
+                Employee moved = from.getEmployees().get(random.nextInt(from.getEmployees().size()));
+                from.removeEmployee(moved);
+                to.addEmployee(moved);
+            }
+        }
+        long d7 = System.nanoTime() - t7;
+
+        long t8 = System.nanoTime();
+        List<Employee> recomputedDistinct = FlatMapPipelines.collectorDistinct(feed);
+        Map<String, List<Employee>> recomputedByDept = FlatMapPipelines.collectorGroupByDepartment(feed);
+        Map<String, Integer> recomputedTitles = titleCounts(recomputedDistinct);
+        long d8 = (System.nanoTime() - t8) / 1_000_000;
+
+        DirectorySnapshot after = directory.snapshot();
+        System.out.println("\nDirectory: register " + d6 + " ms, " + deltas + " deltas at "
+                + (d7 / deltas / 1_000) + " us each, full recompute " + d8 + " ms");
+        System.out.println(after);
+        System.out.println("Directory views consistent: "
+                + matches(after, recomputedDistinct, recomputedByDept, recomputedTitles));
+        System.out.println("Old snapshot unchanged: " + (before.version() < after.version()
+                && matches(before, beforeDistinct, beforeByDept, titleCounts(beforeDistinct))));
+    }
+
+    // Employee.equals compares ids only; the snapshot must also keep names and titles
+    private static boolean sameEmployees(List<Employee> expected, List<Employee> actual) {
+        if (!expected.equals(actual)) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            if (!Objects.equals(expected.get(i).getName(), actual.get(i).getName())
+                    || !Objects.equals(expected.get(i).getTitle(), actual.get(i).getTitle())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameIds(List<Employee> indexed, List<Employee> scanned) {
+        return Arrays.equals(indexed.stream().mapToInt(Employee::getId).toArray(),
+                scanned.stream().mapToInt(Employee::getId).sorted().toArray());
+    }
+
+    private static Map<String, Integer> titleCounts(List<Employee> employees) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Employee e : employees) {
+            counts.merge(e.getTitle(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // Compared as sets: the directory's lists come in no particular order
+    private static boolean matches(DirectorySnapshot snapshot, List<Employee> distinct,
+                                   Map<String, List<Employee>> byDept, Map<String, Integer> titles) {
+        if (!new HashSet<>(snapshot.distinctEmployees()).equals(new HashSet<>(distinct))
+                || snapshot.employeeCount() != distinct.size()
+                || !snapshot.titleCounts().equals(titles)) {
+            return false;
+        }
+        Map<String, List<Employee>> snapshotByDept = snapshot.employeesByDepartment();
+        if (snapshotByDept.size() != byDept.size()) return false;
+        for (Map.Entry<String, List<Employee>> e : byDept.entrySet()) {
+            if (!new HashSet<>(e.getValue()).equals(new HashSet<>(snapshot.employeesOf(e.getKey())))) return false;
+        }
+        return true;
     }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+// The flatten and group-by-department steps of FlatMapDemo, one public static method per implementation,
+// plus a generator for feeds where many Department records share a name. flat-map-bench binds to these
+// by name, so keep the signatures stable when changing the bodies.
+public final class FlatMapPipelines {
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Charlie", "Diana", "Eve", "Frank", "Grace", "Heidi"};
+    private static final String[] TITLES = {"Engineer", "Manager", "Designer", "Analyst", "Recruiter"};
+
+    private FlatMapPipelines() {}
+
+    // departmentCount records named "Dept-0" .. "Dept-(distinctNames-1)" in rotation, each holding
+    // employeesPerDepartment employees drawn (with repeats) from a pool of distinctEmployees
+    public static List<Department> generateDepartments(long seed, int departmentCount, int distinctNames,
+                                                       int employeesPerDepartment, int distinctEmployees) {
+        if (departmentCount < 0 || distinctNames <= 0 || employeesPerDepartment < 0 || distinctEmployees <= 0) {
+            throw new IllegalArgumentException("Require counts >= 0 and distinct names/employees > 0");
+        }
+        Employee[] pool = new Employee[distinctEmployees];
+        for (int i = 0; i < distinctEmployees; i++) {
+            pool[i] = new Employee(i + 1, FIRST_NAMES[i % FIRST_NAMES.length] + " " + (i + 1), TITLES[i % TITLES.length]);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Department> departments = new ArrayList<>(departmentCount);
+        for (int d = 0; d < departmentCount; d++) {
+            List<Employee> employees = new ArrayList<>(employeesPerDepartment);
+            for (int e = 0; e < employeesPerDepartment; e++) {
+                employees.add(pool[random.nextInt(distinctEmployees)]);
+            }
+            departments.add(new Department("Dept-" + (d % distinctNames), employees));
+        }
+        return departments;
+    }
+
+    public static List<Employee> streamDistinct(List<Department> departments) {
+        return departments.stream()
+                .filter(dept -> dept != null)
+                .flatMap(dept -> dept.getEmployees().stream())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    public static List<Employee> collectorDistinct(List<Department> departments) {
+        return departments.stream().collect(EmployeeCollectors.flatteningDistinct());
+    }
+
+    public static List<Employee> parallelCollectorDistinct(List<Department> departments) {
+        return departments.parallelStream().collect(EmployeeCollectors.flatteningDistinct());
+    }
+
+    public static Map<String, List<Employee>> streamGroupByDepartment(List<Department> departments) {
+        return departments.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(
+                        Department::getName,
+                        d -> d.getEmployees().stream()
+                                .filter(Objects::nonNull)
+                                .distinct()
+                                .collect(Collectors.toList()),
+                        (left, right) -> {
+                            List<Employee> merged = new ArrayList<>(left);
+                            merged.addAll(right);
+                            return merged.stream().distinct().collect(Collectors.toList());
+                        },
+                        LinkedHashMap::new
+                ));
+    }
+
+    public static Map<String, List<Employee>> collectorGroupByDepartment(List<Department> departments) {
+        return departments.stream().collect(EmployeeCollectors.groupingByDepartment());
+    }
+
+    public static Map<String, List<Employee>> parallelCollectorGroupByDepartment(List<Department> departments) {
+        return departments.parallelStream().collect(EmployeeCollectors.groupingByDepartment());
+    }
+}
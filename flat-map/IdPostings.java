@@ -0,0 +1,153 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Immutable posting list: a sorted, duplicate-free int[] of employee ids, 4 bytes per entry with no
+// boxing. and/or/andNot are linear merges; when one side is much shorter, and() gallops through the
+// longer one instead, so intersecting a rare term with a common one costs O(small * log(large)).
+public final class IdPostings {
+    public static final IdPostings EMPTY = new IdPostings(new int[0]);
+
+    // Below this size ratio a linear merge beats galloping
+    private static final int GALLOP_RATIO = 8;
+
+    private final int[] ids;
+
+    private IdPostings(int[] ids) {
+        this.ids = ids;
+    }
+
+    public static IdPostings of(int... ids) {
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (n == 0 || sorted[n - 1] != sorted[i]) sorted[n++] = sorted[i];
+        }
+        return wrap(n == sorted.length ? sorted : Arrays.copyOf(sorted, n));
+    }
+
+    // Takes ownership of an already sorted, duplicate-free array
+    static IdPostings wrap(int[] sortedIds) {
+        return sortedIds.length == 0 ? EMPTY : new IdPostings(sortedIds);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    public int[] toArray() {
+        return ids.clone();
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(ids);
+    }
+
+    public IdPostings and(IdPostings other) {
+        if (ids.length > other.ids.length) return other.and(this);
+        if (ids.length == 0) return EMPTY;
+        if ((long) ids.length * GALLOP_RATIO < other.ids.length) return gallopingAnd(ids, other.ids);
+        int[] a = ids, b = other.ids;
+        int[] out = new int[a.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return wrap(n == out.length ? out : Arrays.copyOf(out, n));
+    }
+
+    public IdPostings or(IdPostings other) {
+        if (other.ids.length == 0) return this;
+        if (ids.length == 0) return other;
+        int[] a = ids, b = other.ids;
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) out[n++] = a[i++];
+        while (j < b.length) out[n++] = b[j++];
+        return wrap(n == out.length ? out : Arrays.copyOf(out, n));
+    }
+
+    // Ids in this list but not in other
+    public IdPostings andNot(IdPostings other) {
+        if (ids.length == 0 || other.ids.length == 0) return this;
+        int[] a = ids, b = other.ids;
+        int[] out = new int[a.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length) {
+            while (j < b.length && b[j] < a[i]) j++;
+            if (j == b.length || b[j] != a[i]) out[n++] = a[i];
+            i++;
+        }
+        return n == a.length ? this : wrap(Arrays.copyOf(out, n));
+    }
+
+    private static IdPostings gallopingAnd(int[] small, int[] large) {
+        int[] out = new int[small.length];
+        int n = 0;
+        int lo = 0;
+        for (int id : small) {
+            // Exponential probe from the last match, then binary search inside the bracket
+            int step = 1;
+            int hi = lo;
+            while (hi < large.length && large[hi] < id) {
+                lo = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(large, lo, Math.min(hi + 1, large.length), id);
+            if (found >= 0) {
+                out[n++] = id;
+                lo = found + 1;
+            } else {
+                lo = -found - 1;
+            }
+            if (lo >= large.length) break;
+        }
+        return wrap(n == out.length ? out : Arrays.copyOf(out, n));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(ids, ((IdPostings) o).ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ids);
+    }
+
+    @Override
+    public String toString() {
+        return "IdPostings{" +
+                "size=" + ids.length +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+// Open-addressing set of primitive ints: linear probing over a plain int[] with 0 as the empty-slot
+// marker (a stored 0 is tracked by a flag instead), so membership costs no boxing and no per-entry
+// objects. Not thread-safe.
+final class IntHashSet {
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int size;
+    private boolean hasZero;
+
+    IntHashSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    IntHashSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int key) {
+        if (key == 0) return hasZero;
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return true;
+        }
+        return false;
+    }
+
+    // True when the key was not present before
+    boolean add(int key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return false;
+        }
+        keys[i] = key;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    private void rehash(int newCapacity) {
+        int[] old = keys;
+        keys = new int[newCapacity];
+        int mask = newCapacity - 1;
+        for (int key : old) {
+            if (key == 0) continue;
+            int i = slot(key, mask);
+            while (keys[i] != 0) i = (i + 1) & mask;
+            keys[i] = key;
+        }
+    }
+
+    private static int slot(int key, int mask) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,121 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+// Immutable hash map split into a fixed number of segments, changed through an Editor that copies a
+// segment the first time it writes to it and then updates that copy in place. An edit therefore costs
+// O(size / segments) per segment touched rather than a full copy, a batch of edits pays for each segment
+// at most once, and every published map stays valid: a reader holding an old map sees exactly the state
+// it was published with, without any locking. Empty segments share one empty map.
+final class SegmentedMap<K, V> {
+    private final Map<K, V>[] segments;
+    private final int size;
+
+    private SegmentedMap(Map<K, V>[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <K, V> SegmentedMap<K, V> empty(int segmentCount) {
+        if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+            throw new IllegalArgumentException("Segment count must be a power of two, got " + segmentCount);
+        }
+        Map<K, V>[] segments = new Map[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = Collections.emptyMap();
+        }
+        return new SegmentedMap<>(segments, 0);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    V get(Object key) {
+        return segments[segmentOf(key, segments.length)].get(key);
+    }
+
+    V getOrDefault(Object key, V defaultValue) {
+        return segments[segmentOf(key, segments.length)].getOrDefault(key, defaultValue);
+    }
+
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Map<K, V> segment : segments) {
+            segment.forEach(action);
+        }
+    }
+
+    Editor<K, V> edit() {
+        return new Editor<>(segments.clone(), size);
+    }
+
+    private static int segmentOf(Object key, int segmentCount) {
+        int h = key == null ? 0 : key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (segmentCount - 1);
+    }
+
+    // Mutable working copy of a SegmentedMap. Not thread-safe.
+    static final class Editor<K, V> {
+        private final Map<K, V>[] segments;
+        // Segments copied since the last publish, which only this editor can see
+        private final boolean[] owned;
+        private int size;
+
+        private Editor(Map<K, V>[] segments, int size) {
+            this.segments = segments;
+            this.owned = new boolean[segments.length];
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        V get(Object key) {
+            return segments[segmentOf(key, segments.length)].get(key);
+        }
+
+        V getOrDefault(Object key, V defaultValue) {
+            return segments[segmentOf(key, segments.length)].getOrDefault(key, defaultValue);
+        }
+
+        void put(K key, V value) {
+            Map<K, V> segment = writable(segmentOf(key, segments.length));
+            int before = segment.size();
+            segment.put(key, value);
+            size += segment.size() - before;
+        }
+
+        void remove(K key) {
+            int s = segmentOf(key, segments.length);
+            if (!segments[s].containsKey(key)) return;
+            writable(s).remove(key);
+            size--;
+        }
+
+        // Freezes the current contents; later edits copy segments again before writing
+        SegmentedMap<K, V> publish() {
+            Arrays.fill(owned, false);
+            return new SegmentedMap<>(segments.clone(), size);
+        }
+
+        private Map<K, V> writable(int s) {
+            if (!owned[s]) {
+                segments[s] = new HashMap<>(segments[s]);
+                owned[s] = true;
+            }
+            return segments[s];
+        }
+    }
+}
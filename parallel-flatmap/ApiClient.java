@@ -1,9 +1,31 @@
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 public class ApiClient {
+    // Simulated network latency; zero by default so the demo stays CPU-bound
+    private static volatile long typicalLatencyNanos;
+    private static volatile long slowLatencyNanos;
+    private static volatile double slowFraction;
+
+    // Makes every fetch block for typicalMicros, and a slowFraction of them for slowMicros instead
+    public static void simulateLatency(long typicalMicros, long slowMicros, double slowFraction) {
+        if (typicalMicros < 0 || slowMicros < 0 || !(slowFraction >= 0.0 && slowFraction <= 1.0)) {
+            throw new IllegalArgumentException("Require latencies >= 0 and 0 <= slowFraction <= 1, got "
+                    + typicalMicros + ", " + slowMicros + ", " + slowFraction);
+        }
+        ApiClient.typicalLatencyNanos = TimeUnit.MICROSECONDS.toNanos(typicalMicros);
+        ApiClient.slowLatencyNanos = TimeUnit.MICROSECONDS.toNanos(slowMicros);
+        ApiClient.slowFraction = slowFraction;
+    }
+
     // Simulate an API response wrapped in Optional (missing data without nulls)
     public static Optional<Record> fetchOptional(int id) {
+        if (!awaitResponse()) {
+            return Optional.empty();
+        }
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
         double p = rnd.nextDouble();
         if (p < 0.05) { // ~5% missing
@@ -16,16 +38,58 @@ public class ApiClient {
 
     // Simulate an API response wrapped in Try (exceptions handled gracefully)
     public static Try<Record> fetchTry(int id) {
+        if (!awaitResponse()) {
+            return Try.failure(new InterruptedException("Fetch interrupted for id=" + id));
+        }
         ThreadLocalRandom rnd = ThreadLocalRandom.current();
         double p = rnd.nextDouble();
         if (p < 0.1) { // ~10% failures
-            return Try.failure(new RuntimeException("Upstream error for id=" + id));
+            return Try.stacklessFailure(UpstreamException::new, "Upstream error for id=" + id);
         }
         // Simulate lightweight CPU work
         String payload = computePayload(id);
         return Try.success(new Record(id, payload));
     }
 
+    // Batch lookup: one round trip for all ids, each result failing independently like fetchTry.
+    // Results are in the order of ids; a cancelled batch fails every entry.
+    public static List<Try<Record>> fetchBatchTry(List<Integer> ids) {
+        List<Try<Record>> results = new ArrayList<>(ids.size());
+        if (!awaitResponse()) {
+            InterruptedException cancelled = new InterruptedException("Batch fetch interrupted");
+            for (int i = 0; i < ids.size(); i++) {
+                results.add(Try.failure(cancelled));
+            }
+            return results;
+        }
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int id : ids) {
+            if (rnd.nextDouble() < 0.1) { // ~10% failures
+                results.add(Try.stacklessFailure(UpstreamException::new, "Upstream error for id=" + id));
+            } else {
+                results.add(Try.success(new Record(id, computePayload(id))));
+            }
+        }
+        return results;
+    }
+
+    // Blocks like an I/O call would; false when the calling thread was interrupted (the call was cancelled)
+    private static boolean awaitResponse() {
+        long latency = typicalLatencyNanos;
+        double slow = slowFraction;
+        if (slow > 0 && ThreadLocalRandom.current().nextDouble() < slow) {
+            latency = slowLatencyNanos;
+        }
+        if (latency == 0) return true;
+        try {
+            TimeUnit.NANOSECONDS.sleep(latency);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     private static String computePayload(int id) {
         // Synthetic payload; include 'api' sometimes for filtering
         String base = (id % 3 == 0) ? "api:/v1/items" : "ui:/page";
@@ -33,4 +97,13 @@ public class ApiClient {
         int hash = (base.hashCode() * 31) ^ id;
         return base + "#" + Integer.toHexString(hash);
     }
-}
\ No newline at end of file
+
+    // Simulated upstream error. Expected in bulk, so it is stackless: building one skips fillInStackTrace
+    public static final class UpstreamException extends Try.StacklessException {
+        private static final long serialVersionUID = 1L;
+
+        public UpstreamException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Point-in-time counters of a BatchingFetcher. requests = coalesced + ids sent in batches + ids still
+// queued or being cut into a batch. Linger is measured from the first id of a batch being enqueued to
+// the batch being dispatched.
+public final class BatchMetrics {
+    private final long requests;
+    private final long coalesced;
+    private final long batches;
+    private final long batchedIds;
+    private final long maxBatchSize;
+    private final long fullBatches;
+    private final long meanLingerNanos;
+    private final long maxLingerNanos;
+    private final int queued;
+
+    BatchMetrics(long requests, long coalesced, long batches, long batchedIds, long maxBatchSize,
+                 long fullBatches, long meanLingerNanos, long maxLingerNanos, int queued) {
+        this.requests = requests;
+        this.coalesced = coalesced;
+        this.batches = batches;
+        this.batchedIds = batchedIds;
+        this.maxBatchSize = maxBatchSize;
+        this.fullBatches = fullBatches;
+        this.meanLingerNanos = meanLingerNanos;
+        this.maxLingerNanos = maxLingerNanos;
+        this.queued = queued;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    // Requests answered by a lookup another caller had already queued or sent
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public double getDedupHitRate() {
+        return requests == 0 ? 0.0 : (double) coalesced / requests;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getBatchedIds() {
+        return batchedIds;
+    }
+
+    public double getMeanBatchSize() {
+        return batches == 0 ? 0.0 : (double) batchedIds / batches;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    // Batches cut because they reached the size limit rather than the linger deadline
+    public long getFullBatches() {
+        return fullBatches;
+    }
+
+    public long getMeanLingerNanos() {
+        return meanLingerNanos;
+    }
+
+    public long getMaxLingerNanos() {
+        return maxLingerNanos;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchMetrics{" +
+                "requests=" + requests +
+                ", coalesced=" + coalesced +
+                ", dedupHitRate=" + String.format("%.3f", getDedupHitRate()) +
+                ", batches=" + batches +
+                ", meanBatchSize=" + String.format("%.1f", getMeanBatchSize()) +
+                ", maxBatchSize=" + maxBatchSize +
+                ", fullBatches=" + fullBatches +
+                ", meanLingerUs=" + meanLingerNanos / 1_000 +
+                ", maxLingerUs=" + maxLingerNanos / 1_000 +
+                ", queued=" + queued +
+                '}';
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Turns individual fetchTry(id) calls into batch lookups. Callers enqueue ids; a dispatcher thread
+// cuts a batch when maxBatchSize ids are waiting or the oldest has waited `linger`, runs the batch
+// function on its own virtual thread and completes each caller's future with its Try<Record>.
+// Concurrent requests for an id that is already queued or in flight share that one lookup.
+public final class BatchingFetcher implements AutoCloseable {
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Function<List<Integer>, List<Try<Record>>> batchFetch;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Integer, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedIds = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong fullBatches = new AtomicLong();
+    private final AtomicLong lingerSumNanos = new AtomicLong();
+    private final AtomicLong lingerMaxNanos = new AtomicLong();
+
+    private BatchingFetcher(Builder b) {
+        this.maxBatchSize = b.maxBatchSize;
+        this.lingerNanos = b.lingerNanos;
+        this.batchFetch = b.batchFetch;
+        this.dispatcher = new Thread(this::dispatch, "api-batch-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public CompletableFuture<Try<Record>> fetchAsync(int id) {
+        if (closed) {
+            throw new IllegalStateException("Batching fetcher is closed");
+        }
+        requests.increment();
+        Pending fresh = new Pending(id);
+        Pending existing = inFlight.putIfAbsent(id, fresh);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.future;
+        }
+        queue.add(fresh);
+        if (closed) {
+            // Raced with close(); the dispatcher may already be gone
+            failQueued();
+        }
+        return fresh.future;
+    }
+
+    // Blocking form with fetchTry's contract, for use from stream pipelines and virtual threads
+    public Try<Record> fetchTry(int id) {
+        try {
+            return fetchAsync(id).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Try.failure(e);
+        } catch (ExecutionException e) {
+            return Try.failure(e.getCause());
+        }
+    }
+
+    public BatchMetrics metrics() {
+        long b = batches.get();
+        return new BatchMetrics(requests.sum(), coalesced.sum(), b, batchedIds.get(), maxBatch.get(),
+                fullBatches.get(), b == 0 ? 0 : lingerSumNanos.get() / b, lingerMaxNanos.get(), queue.size());
+    }
+
+    // Dispatches what is already queued, then stops; later fetchAsync calls are rejected
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        dispatcher.interrupt();
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failQueued();
+    }
+
+    private void failQueued() {
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            inFlight.remove(p.id, p);
+            p.future.complete(Try.failure(new CancellationException("Batching fetcher closed before id=" + p.id + " was sent")));
+        }
+    }
+
+    private void dispatch() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            Pending first;
+            try {
+                first = closed ? queue.poll() : queue.take();
+            } catch (InterruptedException e) {
+                continue; // close() wakes us up; loop round to drain without blocking
+            }
+            if (first == null) return;
+            batch.add(first);
+            long deadline = first.enqueuedNanos + lingerNanos;
+            while (batch.size() < maxBatchSize) {
+                long wait = deadline - System.nanoTime();
+                Pending next;
+                if (wait <= 0 || closed) {
+                    next = queue.poll();
+                } else {
+                    try {
+                        next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        continue; // closing: stop lingering and take only what is queued
+                    }
+                }
+                if (next == null) break;
+                batch.add(next);
+            }
+            record(batch.size(), System.nanoTime() - first.enqueuedNanos);
+            List<Pending> cut = new ArrayList<>(batch);
+            batch.clear();
+            Thread.ofVirtual().name("api-batch-", batches.get()).start(() -> execute(cut));
+        }
+    }
+
+    private void execute(List<Pending> batch) {
+        List<Integer> ids = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            ids.add(p.id);
+        }
+        List<Try<Record>> results;
+        try {
+            results = batchFetch.apply(ids);
+            if (results == null || results.size() != ids.size()) {
+                throw new IllegalStateException("Batch fetch returned " + (results == null ? "null" : results.size() + " results")
+                        + " for " + ids.size() + " ids");
+            }
+        } catch (Throwable t) {
+            results = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                results.add(Try.failure(t));
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending p = batch.get(i);
+            // Unregister first: a request arriving after completion must start a fresh lookup
+            inFlight.remove(p.id, p);
+            p.future.complete(results.get(i));
+        }
+    }
+
+    private void record(int size, long lingeredNanos) {
+        batches.incrementAndGet();
+        batchedIds.addAndGet(size);
+        maxBatch.accumulateAndGet(size, Math::max);
+        if (size == maxBatchSize) fullBatches.incrementAndGet();
+        lingerSumNanos.addAndGet(lingeredNanos);
+        lingerMaxNanos.accumulateAndGet(lingeredNanos, Math::max);
+    }
+
+    private static final class Pending {
+        final int id;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<Try<Record>> future = new CompletableFuture<>();
+
+        Pending(int id) {
+            this.id = id;
+        }
+    }
+
+    public static final class Builder {
+        private int maxBatchSize = 64;
+        private long lingerNanos = TimeUnit.MILLISECONDS.toNanos(2);
+        private Function<List<Integer>, List<Try<Record>>> batchFetch = ApiClient::fetchBatchTry;
+
+        private Builder() {}
+
+        public Builder maxBatchSize(int maxBatchSize) {
+            if (maxBatchSize <= 0) {
+                throw new IllegalArgumentException("Max batch size must be > 0, got " + maxBatchSize);
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        // How long the first id of a batch may wait for others to join it
+        public Builder linger(long linger, TimeUnit unit) {
+            if (linger < 0 || unit == null) {
+                throw new IllegalArgumentException("Linger must be >= 0 with a unit, got " + linger + " " + unit);
+            }
+            this.lingerNanos = unit.toNanos(linger);
+            return this;
+        }
+
+        // Must return one result per id, in the same order
+        public Builder batchFetch(Function<List<Integer>, List<Try<Record>>> batchFetch) {
+            if (batchFetch == null) {
+                throw new IllegalArgumentException("Batch fetch must not be null");
+            }
+            this.batchFetch = batchFetch;
+            return this;
+        }
+
+        public BatchingFetcher build() {
+            return new BatchingFetcher(this);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// Lock-free circuit breaker. Outcomes are counted in a ring of time buckets covering the sliding window;
+// once the window holds at least minCalls outcomes and the failure rate reaches the threshold, the
+// breaker opens and calls fail fast with OpenException without touching the upstream. After openFor,
+// one caller is let through as a probe (half-open): its success closes the breaker, its failure
+// re-opens it. State changes are single CASes; bucket counters are atomics, so a bucket being
+// recycled concurrently may lose a few outcomes, which only blurs the rate slightly.
+public final class CircuitBreaker implements TryPolicy {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // What tryAcquire granted; only the PROBE call's outcome may move the breaker out of HALF_OPEN
+    private enum Permit { DENIED, CALL, PROBE }
+
+    // Epoch of a bucket holding nothing; far enough back never to fall inside the window
+    private static final long NO_EPOCH = Long.MIN_VALUE / 2;
+
+    private final double failureThreshold;
+    private final int minCalls;
+    private final long openNanos;
+    private final long bucketNanos;
+    private final int buckets;
+    private final long origin = System.nanoTime();
+
+    // Bucket i counts outcomes of epoch bucketEpochs[i], where epoch = elapsed / bucketNanos
+    private final AtomicLongArray bucketEpochs;
+    private final AtomicLongArray successes;
+    private final AtomicLongArray failures;
+
+    private final AtomicInteger state = new AtomicInteger(State.CLOSED.ordinal());
+    private volatile long openedAtNanos;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    private CircuitBreaker(Builder b) {
+        this.failureThreshold = b.failureThreshold;
+        this.minCalls = b.minCalls;
+        this.openNanos = b.openNanos;
+        this.buckets = b.buckets;
+        this.bucketNanos = Math.max(1, b.windowNanos / b.buckets);
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        this.successes = new AtomicLongArray(buckets);
+        this.failures = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            bucketEpochs.set(i, NO_EPOCH);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> IntFunction<Try<T>> wrap(IntFunction<Try<T>> fetch) {
+        return id -> {
+            Permit permit = tryAcquire();
+            if (permit == Permit.DENIED) {
+                shortCircuited.increment();
+                return Try.failure(new OpenException("Circuit open, not calling upstream for id=" + id));
+            }
+            boolean probe = permit == Permit.PROBE;
+            calls.increment();
+            Try<T> result;
+            try {
+                result = fetch.apply(id);
+            } catch (Throwable t) {
+                // Including Errors: a probe must always report back or the breaker stays half-open
+                result = Try.failure(t);
+            }
+            if (result.isSuccess()) {
+                onSuccess(probe);
+            } else if (isAbandoned(result.getError())) {
+                // The caller gave up (timeout or cancellation); that says nothing about the upstream
+                if (probe) release();
+            } else {
+                onFailure(probe);
+            }
+            return result;
+        };
+    }
+
+    public State state() {
+        int s = state.get();
+        if (s == State.OPEN.ordinal() && System.nanoTime() - openedAtNanos >= openNanos) {
+            // Reported as half-open once the next caller would be let through as a probe
+            return State.HALF_OPEN;
+        }
+        return State.values()[s];
+    }
+
+    // Failure rate over the current window; NaN when it holds no outcomes
+    public double failureRate() {
+        long epoch = epoch();
+        long ok = windowTotal(successes, epoch);
+        long failed = windowTotal(failures, epoch);
+        return ok + failed == 0 ? Double.NaN : (double) failed / (ok + failed);
+    }
+
+    // Calls that reached the upstream
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long shortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    // Times the breaker went from closed or half-open to open
+    public long opened() {
+        return opened.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "state=" + state() +
+                ", calls=" + calls() +
+                ", shortCircuited=" + shortCircuited() +
+                ", opened=" + opened() +
+                '}';
+    }
+
+    private Permit tryAcquire() {
+        int s = state.get();
+        if (s == State.CLOSED.ordinal()) return Permit.CALL;
+        if (s == State.OPEN.ordinal() && System.nanoTime() - openedAtNanos >= openNanos
+                && state.compareAndSet(s, State.HALF_OPEN.ordinal())) {
+            // Exactly one caller wins the CAS and becomes the probe
+            return Permit.PROBE;
+        }
+        return Permit.DENIED;
+    }
+
+    private static boolean isAbandoned(Throwable error) {
+        return error instanceof InterruptedException || error instanceof CancellationException;
+    }
+
+    // An abandoned probe proves nothing either way; reopen so the next caller after openFor probes again
+    private void release() {
+        trip(State.HALF_OPEN);
+    }
+
+    // Calls admitted while CLOSED that finish during HALF_OPEN only count towards the window
+    private void onSuccess(boolean probe) {
+        if (probe && state.compareAndSet(State.HALF_OPEN.ordinal(), State.CLOSED.ordinal())) {
+            // Start the closed period with a clean window rather than the failures that opened it
+            for (int i = 0; i < buckets; i++) {
+                bucketEpochs.set(i, NO_EPOCH);
+            }
+            return;
+        }
+        record(successes);
+    }
+
+    private void onFailure(boolean probe) {
+        if (probe) {
+            trip(State.HALF_OPEN);
+            return;
+        }
+        record(failures);
+        if (state.get() != State.CLOSED.ordinal()) return;
+        long epoch = epoch();
+        long ok = windowTotal(successes, epoch);
+        long failed = windowTotal(failures, epoch);
+        if (ok + failed >= minCalls && failed >= failureThreshold * (ok + failed)) {
+            trip(State.CLOSED);
+        }
+    }
+
+    private void trip(State from) {
+        openedAtNanos = System.nanoTime();
+        if (state.compareAndSet(from.ordinal(), State.OPEN.ordinal())) {
+            opened.increment();
+        }
+    }
+
+    private void record(AtomicLongArray counts) {
+        long epoch = epoch();
+        int i = (int) (epoch % buckets);
+        long seen = bucketEpochs.get(i);
+        if (seen != epoch && bucketEpochs.compareAndSet(i, seen, epoch)) {
+            successes.set(i, 0);
+            failures.set(i, 0);
+        }
+        counts.incrementAndGet(i);
+    }
+
+    private long windowTotal(AtomicLongArray counts, long epoch) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (epoch - bucketEpochs.get(i) < buckets) {
+                total += counts.get(i);
+            }
+        }
+        return total;
+    }
+
+    private long epoch() {
+        return (System.nanoTime() - origin) / bucketNanos;
+    }
+
+    // Returned (inside a failed Try) for calls rejected while the breaker is open. Carries no stack
+    // trace: short-circuits are expected in bulk and must stay cheap.
+    public static final class OpenException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        OpenException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    public static final class Builder {
+        private double failureThreshold = 0.5;
+        private int minCalls = 20;
+        private long windowNanos = TimeUnit.SECONDS.toNanos(10);
+        private int buckets = 10;
+        private long openNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private Builder() {}
+
+        // Failure rate (0..1] at which the breaker opens, once the window holds at least minCalls outcomes
+        public Builder failureThreshold(double failureThreshold, int minCalls) {
+            if (!(failureThreshold > 0.0 && failureThreshold <= 1.0) || minCalls <= 0) {
+                throw new IllegalArgumentException("Require 0 < threshold <= 1 and minCalls > 0, got "
+                        + failureThreshold + ", " + minCalls);
+            }
+            this.failureThreshold = failureThreshold;
+            this.minCalls = minCalls;
+            return this;
+        }
+
+        public Builder window(long window, TimeUnit unit, int buckets) {
+            if (window <= 0 || unit == null || buckets <= 0) {
+                throw new IllegalArgumentException("Require window > 0 with a unit and buckets > 0, got "
+                        + window + " " + unit + ", " + buckets);
+            }
+            this.windowNanos = unit.toNanos(window);
+            this.buckets = buckets;
+            return this;
+        }
+
+        // How long the breaker stays open before letting a probe through
+        public Builder openFor(long duration, TimeUnit unit) {
+            if (duration < 0 || unit == null) {
+                throw new IllegalArgumentException("Open duration must be >= 0 with a unit, got " + duration + " " + unit);
+            }
+            this.openNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
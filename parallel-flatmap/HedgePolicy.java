@@ -0,0 +1,145 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+// Hedged requests: if a fetch has not answered after hedgeDelay, a second identical fetch is sent and
+// whichever succeeds first wins; the loser is interrupted. Set hedgeDelay near the upstream's p95 so
+// only the slow tail is duplicated. Hedges are capped at maxHedgeRatio of all calls, bounding the
+// extra load even when the whole upstream slows down. The result is a failure only if every attempt
+// sent for the call failed.
+public final class HedgePolicy implements TryPolicy {
+    private final long hedgeDelayNanos;
+    private final double maxHedgeRatio;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    private HedgePolicy(Builder b) {
+        this.hedgeDelayNanos = b.hedgeDelayNanos;
+        this.maxHedgeRatio = b.maxHedgeRatio;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> IntFunction<Try<T>> wrap(IntFunction<Try<T>> fetch) {
+        return id -> call(id, fetch);
+    }
+
+    private <T> Try<T> call(int id, IntFunction<Try<T>> fetch) {
+        calls.increment();
+        CompletableFuture<Try<T>> winner = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        Thread primary = Thread.ofVirtual().start(() -> attempt(id, fetch, winner, outstanding, false));
+        Thread hedge = null;
+        try {
+            try {
+                return winner.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException slow) {
+                if (hedgesSent.sum() < maxHedgeRatio * calls.sum()) {
+                    hedgesSent.increment();
+                    outstanding.incrementAndGet();
+                    hedge = Thread.ofVirtual().start(() -> attempt(id, fetch, winner, outstanding, true));
+                } else {
+                    budgetDenied.increment();
+                }
+                return winner.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Try.failure(e);
+        } catch (ExecutionException e) {
+            return Try.failure(e.getCause());
+        } finally {
+            // Whatever is still running lost (or the caller gave up); stop it
+            primary.interrupt();
+            if (hedge != null) hedge.interrupt();
+        }
+    }
+
+    // Always completes its share: a null result or any Throwable from the fetch counts as a failed
+    // attempt, so the caller blocked on winner wakes up however the attempts end
+    private <T> void attempt(int id, IntFunction<Try<T>> fetch, CompletableFuture<Try<T>> winner,
+                             AtomicInteger outstanding, boolean isHedge) {
+        Try<T> result;
+        try {
+            result = fetch.apply(id);
+            if (result == null) {
+                result = Try.failure(new NullPointerException("Fetch returned null for id=" + id));
+            }
+        } catch (Throwable t) {
+            result = Try.failure(t);
+        }
+        if (result.isSuccess()) {
+            if (winner.complete(result) && isHedge) {
+                hedgesWon.increment();
+            }
+        } else if (outstanding.decrementAndGet() == 0) {
+            // The last attempt standing reports the failure
+            winner.complete(result);
+        }
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long hedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    // Hedges that answered before the original request
+    public long hedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    public long budgetDenied() {
+        return budgetDenied.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgePolicy{" +
+                "calls=" + calls() +
+                ", hedgesSent=" + hedgesSent() +
+                ", hedgesWon=" + hedgesWon() +
+                ", budgetDenied=" + budgetDenied() +
+                '}';
+    }
+
+    public static final class Builder {
+        private long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private double maxHedgeRatio = 0.05;
+
+        private Builder() {}
+
+        public Builder hedgeDelay(long delay, TimeUnit unit) {
+            if (delay < 0 || unit == null) {
+                throw new IllegalArgumentException("Hedge delay must be >= 0 with a unit, got " + delay + " " + unit);
+            }
+            this.hedgeDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        // Upper bound on hedges as a fraction of calls
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            if (!(maxHedgeRatio >= 0.0 && maxHedgeRatio <= 1.0)) {
+                throw new IllegalArgumentException("Max hedge ratio must be in [0, 1], got " + maxHedgeRatio);
+            }
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cold Flow.Publisher of the ids [from, to], emitted only as fast as each subscriber requests them, so
+// even a range of billions of ids holds no more than one counter per subscription in memory.
+public final class IdRangePublisher implements Flow.Publisher<Integer> {
+    private final int from;
+    private final int to;
+
+    private IdRangePublisher(int from, int to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public static IdRangePublisher rangeClosed(int fromInclusive, int toInclusive) {
+        if (toInclusive < fromInclusive) {
+            throw new IllegalArgumentException("Empty id range [" + fromInclusive + ", " + toInclusive + "]");
+        }
+        return new IdRangePublisher(fromInclusive, toInclusive);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        RangeSubscription subscription = new RangeSubscription(subscriber, from, to);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    private static final class RangeSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super Integer> subscriber;
+        private final long end;
+        private final AtomicLong requested = new AtomicLong();
+        // Serializes emission: request() from inside onNext only adds demand for the running loop
+        private final AtomicInteger wip = new AtomicInteger();
+        private long next;
+        private volatile boolean cancelled;
+        private volatile Throwable badRequest;
+
+        RangeSubscription(Flow.Subscriber<? super Integer> subscriber, int from, int to) {
+            this.subscriber = subscriber;
+            this.next = from;
+            this.end = (long) to + 1;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("Request must be > 0, got " + n);
+            } else {
+                requested.accumulateAndGet(n, (r, add) -> r + add < 0 ? Long.MAX_VALUE : r + add);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            while (true) {
+                if (cancelled) return;
+                if (badRequest != null) {
+                    cancelled = true;
+                    subscriber.onError(badRequest);
+                    return;
+                }
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r && next < end && !cancelled) {
+                    subscriber.onNext((int) next++);
+                    emitted++;
+                }
+                if (next == end && !cancelled) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                if (emitted != 0 && r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+// Flow.Publisher that fetches the ids of an upstream publisher concurrently and emits the results in the
+// ids' order. Up to `window` ids are requested from upstream; each is fetched on its own task and its
+// result parked in a reorder buffer slot (sequence % window) until everything before it has been emitted.
+// Upstream is asked for one more id per result emitted downstream, so ids fetched-or-buffered never
+// exceed the window: memory stays bounded for unbounded inputs, and a slow subscriber (no demand) stops
+// new fetches instead of queueing results. Unlike forEachOrdered, the fetches themselves stay concurrent;
+// only emission is sequential.
+public final class OrderedFetchPublisher<T> implements Flow.Publisher<T> {
+    private final Flow.Publisher<Integer> ids;
+    private final IntFunction<T> fetch;
+    private final int window;
+    private final Executor executor;
+    private final AtomicInteger peakOutstanding = new AtomicInteger();
+
+    private OrderedFetchPublisher(Flow.Publisher<Integer> ids, IntFunction<T> fetch, int window, Executor executor) {
+        this.ids = ids;
+        this.fetch = fetch;
+        this.window = window;
+        this.executor = executor;
+    }
+
+    // Fetches on virtual threads, at most `window` at a time
+    public static <T> OrderedFetchPublisher<T> of(Flow.Publisher<Integer> ids, IntFunction<T> fetch, int window) {
+        return of(ids, fetch, window, task -> Thread.ofVirtual().start(task));
+    }
+
+    public static <T> OrderedFetchPublisher<T> of(Flow.Publisher<Integer> ids, IntFunction<T> fetch, int window,
+                                                  Executor executor) {
+        if (ids == null || fetch == null || executor == null || window <= 0) {
+            throw new IllegalArgumentException("Require ids, fetch, executor and window > 0, got window=" + window);
+        }
+        return new OrderedFetchPublisher<>(ids, fetch, window, executor);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        ids.subscribe(new FetchSubscription<>(subscriber, fetch, window, executor, peakOutstanding));
+    }
+
+    // Most ids any subscription had requested but not yet emitted (being fetched or buffered); <= window
+    public int peakOutstanding() {
+        return peakOutstanding.get();
+    }
+
+    // Upstream subscriber and downstream subscription in one. Every downstream signal is sent from
+    // drain(), which the wip counter keeps single-threaded.
+    private static final class FetchSubscription<T> implements Flow.Subscriber<Integer>, Flow.Subscription {
+        private final Flow.Subscriber<? super T> downstream;
+        private final IntFunction<T> fetch;
+        private final int window;
+        private final Executor executor;
+        private final AtomicReferenceArray<Object> slots;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger peakOutstanding;
+
+        private Flow.Subscription upstream;
+        // Written only by upstream signals, which the Flow spec serializes
+        private volatile long received;
+        private volatile boolean upstreamDone;
+        private volatile Throwable error;
+        private volatile Throwable badRequest;
+        private volatile boolean cancelled;
+        // Written only inside drain(); read by onNext for the window check
+        private volatile long emitted;
+
+        FetchSubscription(Flow.Subscriber<? super T> downstream, IntFunction<T> fetch, int window, Executor executor,
+                          AtomicInteger peakOutstanding) {
+            this.downstream = downstream;
+            this.fetch = fetch;
+            this.window = window;
+            this.executor = executor;
+            this.slots = new AtomicReferenceArray<>(window);
+            this.peakOutstanding = peakOutstanding;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(window);
+        }
+
+        @Override
+        public void onNext(Integer id) {
+            if (cancelled) return;
+            long seq = received;
+            long outstanding = seq + 1 - emitted;
+            if (outstanding > window) {
+                // Upstream sent more than we asked for
+                onError(new IllegalStateException("Upstream exceeded the requested window of " + window));
+                upstream.cancel();
+                return;
+            }
+            received = seq + 1;
+            peakOutstanding.accumulateAndGet((int) outstanding, Math::max);
+            int slot = (int) (seq % window);
+            try {
+                executor.execute(() -> complete(slot, id));
+            } catch (RuntimeException e) {
+                slots.set(slot, new Failed(e));
+                drain();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (error == null) error = throwable;
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Spec 3.9: a non-positive request is reported through onError
+                badRequest = new IllegalArgumentException("Request must be > 0, got " + n);
+                drain();
+                return;
+            }
+            requested.accumulateAndGet(n, (r, add) -> r + add < 0 ? Long.MAX_VALUE : r + add);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            upstream.cancel();
+            drain();
+        }
+
+        private void complete(int slot, int id) {
+            Object result;
+            try {
+                result = fetch.apply(id);
+                if (result == null) {
+                    result = new Failed(new NullPointerException("Fetch returned null for id=" + id));
+                }
+            } catch (Throwable t) {
+                result = new Failed(t);
+            }
+            slots.set(slot, result);
+            drain();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            while (true) {
+                if (cancelled) {
+                    for (int i = 0; i < window; i++) slots.set(i, null);
+                    return;
+                }
+                if (badRequest != null) {
+                    cancelled = true;
+                    upstream.cancel();
+                    downstream.onError(badRequest);
+                    return;
+                }
+                long r = requested.get();
+                long sent = 0;
+                while (sent != r) {
+                    int slot = (int) (emitted % window);
+                    Object v = slots.get(slot);
+                    if (v == null) break; // next in order is still being fetched
+                    slots.set(slot, null);
+                    if (v instanceof Failed) {
+                        cancelled = true;
+                        upstream.cancel();
+                        downstream.onError(((Failed) v).cause);
+                        return;
+                    }
+                    downstream.onNext((T) v);
+                    emitted++;
+                    sent++;
+                    if (cancelled) return;
+                }
+                if (sent != 0) {
+                    if (r != Long.MAX_VALUE) requested.addAndGet(-sent);
+                    // Each emitted result frees a slot of the window
+                    upstream.request(sent);
+                }
+                if (upstreamDone && emitted == received) {
+                    cancelled = true;
+                    if (error != null) {
+                        downstream.onError(error);
+                    } else {
+                        downstream.onComplete();
+                    }
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) return;
+            }
+        }
+    }
+
+    private static final class Failed {
+        final Throwable cause;
+
+        Failed(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
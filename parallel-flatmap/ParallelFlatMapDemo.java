@@ -1,10 +1,15 @@
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class ParallelFlatMapDemo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000; // tuneable up to 1_000_000
 
         List<Integer> ids = IntStream.rangeClosed(1, size).boxed().collect(Collectors.toList());
@@ -53,7 +58,242 @@ public class ParallelFlatMapDemo {
         System.out.println("Counts equal (Optional)? " + (countOptSeq == countOptPar));
         System.out.println("Counts equal (Try)? " + (countTrySeq == countTryPar));
 
+        // Dedicated pool: the same Try pipeline isolated from the common pool, over a boxing-free IntStream
+        List<PoolStats> exported = new CopyOnWriteArrayList<>();
+        try (PipelineExecutor executor = PipelineExecutor.builder("api-pipeline")
+                .parallelism(Math.max(2, Runtime.getRuntime().availableProcessors()))
+                .exportStats(20, TimeUnit.MILLISECONDS, exported::add)
+                .build()) {
+            long t10 = System.nanoTime();
+            long countTryPool = executor.overRange(1, size, range -> range
+                    .mapToObj(ApiClient::fetchTry)
+                    .flatMap(tr -> tr.toOptional().stream())
+                    .filter(r -> r.getPayload().contains("api"))
+                    .count());
+            long d10 = (System.nanoTime() - t10) / 1_000_000;
+            System.out.println("Try      pool: count=" + countTryPool + ", time=" + d10 + " ms on " + executor.name()
+                    + " (parallelism=" + executor.parallelism() + ")");
+            System.out.println("Pool: " + executor.stats() + ", exports=" + exported.size() + ", peak running="
+                    + exported.stream().mapToInt(PoolStats::getRunningThreads).max().orElse(0));
+        }
+
+        // Single pass: successes, failures by type, filtered matches and sample errors from one pipeline
+        long t12 = System.nanoTime();
+        ResultSummary trySummary = ids.parallelStream()
+                .map(ApiClient::fetchTry)
+                .collect(ResultCollectors.summarizingTry(r -> r.getPayload().contains("api"), 3));
+        long d12 = (System.nanoTime() - t12) / 1_000_000;
+        ResultSummary optSummary = ids.parallelStream()
+                .map(ApiClient::fetchOptional)
+                .collect(ResultCollectors.summarizingOptional(r -> r.getPayload().contains("api")));
+        System.out.println("Try   summary: " + trySummary + ", time=" + d12 + " ms");
+        System.out.println("Opt   summary: " + optSummary);
+        System.out.println("Summaries cover all ids? " + (trySummary.getTotal() == size && optSummary.getTotal() == size));
+
+        // Upstream errors are stackless: building them skips fillInStackTrace
+        long t13 = System.nanoTime();
+        long stackful = ids.stream().map(id -> Try.failure(new RuntimeException("Upstream error for id=" + id))).filter(Try::isFailure).count();
+        long d13 = (System.nanoTime() - t13) / 1_000_000;
+        long t14 = System.nanoTime();
+        long stackless = ids.stream().map(id -> Try.stacklessFailure(ApiClient.UpstreamException::new, "Upstream error for id=" + id)).filter(Try::isFailure).count();
+        long d14 = (System.nanoTime() - t14) / 1_000_000;
+        System.out.println("Failures: " + stackful + " with stack traces in " + d13 + " ms, " + stackless + " stackless in " + d14 + " ms");
+
+        // I/O-bound variant: every fetch blocks ~1 ms (1% take 100 ms) like a real upstream call. Parallel
+        // streams only reach common-pool parallelism; virtual threads reach the configured concurrency.
+        int ioSize = Math.min(size, args.length > 1 ? Integer.parseInt(args[1]) : 2_000);
+        List<Integer> ioIds = ids.subList(0, ioSize);
+        ApiClient.simulateLatency(1_000, 100_000, 0.01);
+        try (VirtualThreadFetcher fetcher = VirtualThreadFetcher.builder()
+                .maxConcurrency(256)
+                .timeout(25, TimeUnit.MILLISECONDS)
+                .build()) {
+            long t5 = System.nanoTime();
+            long countTryParIo = ioIds.parallelStream()
+                    .map(ApiClient::fetchTry)
+                    .flatMap(tr -> tr.toOptional().stream())
+                    .filter(r -> r.getPayload().contains("api"))
+                    .count();
+            long d5 = (System.nanoTime() - t5) / 1_000_000;
+
+            // Warm-up pass so JIT and thread start-up costs don't show up as timeouts in the timed runs
+            fetcher.fetchTry(ioIds).count();
+
+            // Like for like with the parallel stream: no timeout, so every slow call is waited for
+            long t6 = System.nanoTime();
+            long countTryVt;
+            try (VirtualThreadFetcher untimed = VirtualThreadFetcher.builder().maxConcurrency(256).build()) {
+                countTryVt = untimed.fetchTry(ioIds)
+                        .flatMap(tr -> tr.toOptional().stream())
+                        .filter(r -> r.getPayload().contains("api"))
+                        .count();
+            }
+            long d6 = (System.nanoTime() - t6) / 1_000_000;
+
+            // With the 25 ms timeout the 100 ms tail is dropped, so these passes do less work
+            long timedOutBefore = fetcher.timedOut();
+            long t7 = System.nanoTime();
+            long countTryVtTimed = fetcher.fetchTry(ioIds)
+                    .flatMap(tr -> tr.toOptional().stream())
+                    .filter(r -> r.getPayload().contains("api"))
+                    .count();
+            long d7 = (System.nanoTime() - t7) / 1_000_000;
+            long timedOutTry = fetcher.timedOut() - timedOutBefore;
+
+            timedOutBefore = fetcher.timedOut();
+            long t15 = System.nanoTime();
+            long countOptVt = fetcher.fetchOptional(ioIds)
+                    .flatMap(Optional::stream)
+                    .filter(r -> r.getPayload().contains("api"))
+                    .count();
+            long d15 = (System.nanoTime() - t15) / 1_000_000;
+            long timedOutOpt = fetcher.timedOut() - timedOutBefore;
+
+            System.out.println("Simulated I/O latency (size=" + ioSize + ", concurrency=" + fetcher.maxConcurrency() + ")");
+            System.out.println("Try       par: count=" + countTryParIo + ", time=" + d5 + " ms, " + ioSize * 1000L / Math.max(1, d5) + " fetches/s");
+            System.out.println("Try       vt : count=" + countTryVt + ", time=" + d6 + " ms, " + ioSize * 1000L / Math.max(1, d6) + " fetches/s");
+            System.out.println("Try       vt 25 ms timeout: count=" + countTryVtTimed + ", time=" + d7 + " ms, " + ioSize * 1000L / Math.max(1, d7) + " fetches/s, timed out=" + timedOutTry);
+            System.out.println("Optional  vt 25 ms timeout: count=" + countOptVt + ", time=" + d15 + " ms, " + ioSize * 1000L / Math.max(1, d15) + " fetches/s, timed out=" + timedOutOpt);
+            System.out.println("Virtual threads: peak in flight=" + fetcher.peakInFlight());
+
+            // Flow pipeline: ids published on demand, at most 256 fetched at once, results re-sequenced
+            // into id order before reaching a subscriber that requests 16 at a time. A slow call holds back
+            // everything after it, so the fetch is hedged to keep the 100 ms tail from stalling the window
+            IntFunction<Try<Record>> hedgedFetch = TryPolicy.decorate(ApiClient::fetchTry, HedgePolicy.builder()
+                    .hedgeDelay(5, TimeUnit.MILLISECONDS)
+                    .maxHedgeRatio(0.05)
+                    .build());
+            OrderedFetchPublisher<Try<Record>> ordered = OrderedFetchPublisher.of(
+                    IdRangePublisher.rangeClosed(1, ioSize), hedgedFetch, 256);
+            OrderedCountingSubscriber subscriber = new OrderedCountingSubscriber(16);
+            long t11 = System.nanoTime();
+            ordered.subscribe(subscriber);
+            subscriber.done.await();
+            long d11 = (System.nanoTime() - t11) / 1_000_000;
+            System.out.println("Try      flow: count=" + subscriber.matches + ", time=" + d11 + " ms, " + ioSize * 1000L / Math.max(1, d11)
+                    + " fetches/s, received=" + subscriber.received + ", in order=" + subscriber.inOrder
+                    + ", peak outstanding=" + ordered.peakOutstanding());
+
+            // Batched lookups: the same callers, but ids are coalesced into batch round trips and each id is
+            // requested 4 times in a row, so concurrent repeats share one lookup
+            List<Integer> repeatedIds = ioIds.stream()
+                    .map(id -> 1 + (id - 1) / 4)
+                    .collect(Collectors.toList());
+            try (BatchingFetcher batcher = BatchingFetcher.builder()
+                    .maxBatchSize(64)
+                    .linger(2, TimeUnit.MILLISECONDS)
+                    .build()) {
+                long t8 = System.nanoTime();
+                long countTryBatched = fetcher.fetchAll(repeatedIds, batcher::fetchTry, (id, cause) -> Try.<Record>failure(cause))
+                        .stream()
+                        .flatMap(tr -> tr.toOptional().stream())
+                        .filter(r -> r.getPayload().contains("api"))
+                        .count();
+                long d8 = (System.nanoTime() - t8) / 1_000_000;
+                System.out.println("Try   batched: count=" + countTryBatched + ", time=" + d8 + " ms, " + ioSize * 1000L / Math.max(1, d8) + " fetches/s");
+                System.out.println("Batching: " + batcher.metrics());
+            }
+
+            // Resilience: retries with jittered backoff, a circuit breaker and hedging around fetchTry.
+            // Hedging after 5 ms cuts the 100 ms tail; retries recover most of the ~10% failures.
+            RetryPolicy retry = RetryPolicy.builder()
+                    .maxAttempts(3)
+                    .backoff(1, 10, TimeUnit.MILLISECONDS)
+                    .build();
+            CircuitBreaker breaker = CircuitBreaker.builder()
+                    .failureThreshold(0.5, 20)
+                    .window(1, TimeUnit.SECONDS, 10)
+                    .openFor(50, TimeUnit.MILLISECONDS)
+                    .build();
+            HedgePolicy hedge = HedgePolicy.builder()
+                    .hedgeDelay(5, TimeUnit.MILLISECONDS)
+                    .maxHedgeRatio(0.05)
+                    .build();
+            IntFunction<Try<Record>> resilient = TryPolicy.decorate(ApiClient::fetchTry, retry, breaker, hedge);
+            long plainSuccesses = fetcher.fetchTry(ioIds).filter(Try::isSuccess).count();
+            long t9 = System.nanoTime();
+            long resilientSuccesses;
+            // The per-call timeout now has to cover backoff and retries, not a single attempt
+            try (VirtualThreadFetcher patientFetcher = VirtualThreadFetcher.builder()
+                    .maxConcurrency(256)
+                    .timeout(250, TimeUnit.MILLISECONDS)
+                    .build()) {
+                resilientSuccesses = patientFetcher.fetchAll(ioIds, resilient, (id, cause) -> Try.<Record>failure(cause))
+                        .stream()
+                        .filter(Try::isSuccess)
+                        .count();
+            }
+            long d9 = (System.nanoTime() - t9) / 1_000_000;
+            System.out.println("Try resilient: successes=" + resilientSuccesses + " (plain " + plainSuccesses + "), time=" + d9 + " ms");
+            System.out.println("  " + retry + ", " + breaker + ", " + hedge);
+
+            // Outage: every call fails, so the breaker opens and sheds load and retries stay within budget
+            RetryPolicy outageRetry = RetryPolicy.builder().maxAttempts(3).backoff(1, 10, TimeUnit.MILLISECONDS).build();
+            CircuitBreaker outageBreaker = CircuitBreaker.builder()
+                    .failureThreshold(0.5, 20)
+                    .openFor(1, TimeUnit.SECONDS)
+                    .build();
+            IntFunction<Try<Record>> down = TryPolicy.decorate(
+                    id -> Try.failure(new RuntimeException("Upstream unavailable for id=" + id)), outageRetry, outageBreaker);
+            long outageSuccesses = fetcher.fetchAll(ioIds, down, (id, cause) -> Try.<Record>failure(cause))
+                    .stream()
+                    .filter(Try::isSuccess)
+                    .count();
+            System.out.println("Outage: successes=" + outageSuccesses + ", upstream calls=" + outageBreaker.calls()
+                    + " for " + ioSize + " requests; " + outageRetry + ", " + outageBreaker);
+        } finally {
+            ApiClient.simulateLatency(0, 0, 0);
+        }
+
         System.out.println("Note: Parallel improves throughput for large datasets; mind order sensitivity. " +
                 "Use forEachOrdered or collect to preserve encounter order when needed.");
     }
+
+    // Counts 'api' records with bounded demand, checking that successful records arrive in id order
+    private static final class OrderedCountingSubscriber implements Flow.Subscriber<Try<Record>> {
+        final CountDownLatch done = new CountDownLatch(1);
+        private final int batch;
+        private Flow.Subscription subscription;
+        private int outstanding;
+        private int lastId;
+        long received;
+        long matches;
+        boolean inOrder = true;
+
+        OrderedCountingSubscriber(int batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            outstanding = batch;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(Try<Record> item) {
+            received++;
+            item.toOptional().ifPresent(r -> {
+                inOrder &= r.getId() > lastId;
+                lastId = r.getId();
+                if (r.getPayload().contains("api")) matches++;
+            });
+            if (--outstanding == 0) {
+                outstanding = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            inOrder = false;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
 }
\ No newline at end of file
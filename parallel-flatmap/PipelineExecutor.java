@@ -0,0 +1,154 @@
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Runs parallel stream pipelines on a dedicated, named ForkJoinPool instead of the JVM-wide common pool.
+// A parallel stream whose terminal operation starts inside a ForkJoinPool task forks its subtasks into
+// that pool, so submitting the whole pipeline here isolates it from every other parallelStream() in the
+// process and lets each workload get its own parallelism. Pool statistics can be exported periodically.
+public final class PipelineExecutor implements AutoCloseable {
+    private final String name;
+    private final ForkJoinPool pool;
+    private final ScheduledExecutorService exporter;
+    // Steal count at the last periodic export; written only by the export task
+    private volatile long exportedSteals;
+    private final LongAdder pipelinesRun = new LongAdder();
+
+    private PipelineExecutor(Builder b) {
+        this.name = b.name;
+        this.pool = new ForkJoinPool(b.parallelism, p -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName(b.name + "-worker-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+        if (b.statsSink != null) {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, b.name + "-stats");
+                t.setDaemon(true);
+                return t;
+            });
+            Consumer<PoolStats> sink = b.statsSink;
+            timer.scheduleAtFixedRate(() -> export(sink), b.statsIntervalNanos, b.statsIntervalNanos,
+                    TimeUnit.NANOSECONDS);
+            this.exporter = timer;
+        } else {
+            this.exporter = null;
+        }
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    // Runs pipeline over a parallel boxing-free IntStream of [from, to] inside the pool
+    public <R> R overRange(int fromInclusive, int toInclusive, Function<IntStream, R> pipeline) {
+        return run(() -> pipeline.apply(IntStream.rangeClosed(fromInclusive, toInclusive).parallel()));
+    }
+
+    // Runs pipeline over a parallel stream of items inside the pool
+    public <T, R> R overList(List<T> items, Function<Stream<T>, R> pipeline) {
+        return run(() -> pipeline.apply(items.parallelStream()));
+    }
+
+    // Runs any pipeline inside the pool; the caller blocks until it finishes. Exceptions thrown by the
+    // pipeline are rethrown unwrapped when unchecked.
+    public <R> R run(Callable<R> pipeline) {
+        pipelinesRun.increment();
+        try {
+            return pool.submit(pipeline).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for pipeline on " + name, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Pipeline on " + name + " failed", cause);
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    // Read-only snapshot; stealsSinceLast counts from the last periodic export
+    public PoolStats stats() {
+        return snapshot(pool.getStealCount());
+    }
+
+    private void export(Consumer<PoolStats> sink) {
+        long steals = pool.getStealCount();
+        PoolStats stats = snapshot(steals);
+        exportedSteals = steals;
+        sink.accept(stats);
+    }
+
+    private PoolStats snapshot(long steals) {
+        return new PoolStats(name, pool.getParallelism(), pool.getPoolSize(), pool.getActiveThreadCount(),
+                pool.getRunningThreadCount(), pool.getQueuedTaskCount(), pool.getQueuedSubmissionCount(),
+                steals, steals - exportedSteals, pipelinesRun.sum());
+    }
+
+    // Stops the stats export and waits for running pipelines to finish
+    @Override
+    public void close() {
+        if (exporter != null) exporter.shutdownNow();
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Builder {
+        private final String name;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private long statsIntervalNanos;
+        private Consumer<PoolStats> statsSink;
+
+        private Builder(String name) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Executor name must not be empty");
+            }
+            this.name = name;
+        }
+
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0 || parallelism > 32767) {
+                throw new IllegalArgumentException("Parallelism must be in [1, 32767], got " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // Calls sink with fresh PoolStats every interval, from a daemon thread
+        public Builder exportStats(long interval, TimeUnit unit, Consumer<PoolStats> sink) {
+            if (interval <= 0 || unit == null || sink == null) {
+                throw new IllegalArgumentException("Require interval > 0 with a unit and a sink, got "
+                        + interval + " " + unit);
+            }
+            this.statsIntervalNanos = unit.toNanos(interval);
+            this.statsSink = sink;
+            return this;
+        }
+
+        public PipelineExecutor build() {
+            return new PipelineExecutor(this);
+        }
+    }
+}
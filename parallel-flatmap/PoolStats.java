@@ -0,0 +1,89 @@
+// Point-in-time statistics of a PipelineExecutor's ForkJoinPool. steals is cumulative; stealsSinceLast
+// is the delta from the previous periodic export. running <= active <= poolSize.
+public final class PoolStats {
+    private final String name;
+    private final int parallelism;
+    private final int poolSize;
+    private final int activeThreads;
+    private final int runningThreads;
+    private final long queuedTasks;
+    private final int queuedSubmissions;
+    private final long steals;
+    private final long stealsSinceLast;
+    private final long pipelinesRun;
+
+    PoolStats(String name, int parallelism, int poolSize, int activeThreads, int runningThreads,
+              long queuedTasks, int queuedSubmissions, long steals, long stealsSinceLast, long pipelinesRun) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.poolSize = poolSize;
+        this.activeThreads = activeThreads;
+        this.runningThreads = runningThreads;
+        this.queuedTasks = queuedTasks;
+        this.queuedSubmissions = queuedSubmissions;
+        this.steals = steals;
+        this.stealsSinceLast = stealsSinceLast;
+        this.pipelinesRun = pipelinesRun;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // Worker threads started and not yet terminated
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    // Workers stealing or executing tasks
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    // Workers not blocked waiting to join tasks or in managed blocking: the parallelism actually achieved
+    public int getRunningThreads() {
+        return runningThreads;
+    }
+
+    // Tasks forked into worker queues, not yet executed (an estimate)
+    public long getQueuedTasks() {
+        return queuedTasks;
+    }
+
+    // Pipelines submitted from outside the pool and not yet started
+    public int getQueuedSubmissions() {
+        return queuedSubmissions;
+    }
+
+    public long getSteals() {
+        return steals;
+    }
+
+    public long getStealsSinceLast() {
+        return stealsSinceLast;
+    }
+
+    public long getPipelinesRun() {
+        return pipelinesRun;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "name='" + name + '\'' +
+                ", parallelism=" + parallelism +
+                ", poolSize=" + poolSize +
+                ", active=" + activeThreads +
+                ", running=" + runningThreads +
+                ", queuedTasks=" + queuedTasks +
+                ", queuedSubmissions=" + queuedSubmissions +
+                ", steals=" + steals +
+                ", stealsSinceLast=" + stealsSinceLast +
+                ", pipelinesRun=" + pipelinesRun +
+                '}';
+    }
+}
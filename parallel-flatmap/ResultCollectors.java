@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+// Collectors that summarize a stream of results in a single pass instead of one pipeline per count.
+// Accumulators are plain mutable counters merged pairwise, so they work unchanged on parallel streams;
+// failure types are tallied in a small map since a stream sees only a handful of distinct ones.
+public final class ResultCollectors {
+    private ResultCollectors() {}
+
+    // Counts successes, failures by exception type and successes matching filter; keeps up to
+    // maxSampleErrors failure causes (whichever arrive first in each partition)
+    public static <T> Collector<Try<T>, ?, ResultSummary> summarizingTry(Predicate<? super T> filter, int maxSampleErrors) {
+        if (filter == null || maxSampleErrors < 0) {
+            throw new IllegalArgumentException("Require a filter and maxSampleErrors >= 0, got " + maxSampleErrors);
+        }
+        return Collector.of(
+                () -> new Accumulator(maxSampleErrors),
+                (acc, result) -> {
+                    if (result.isSuccess()) {
+                        acc.success(filter.test(result.get()));
+                    } else {
+                        acc.failure(result.getError());
+                    }
+                },
+                Accumulator::merge,
+                Accumulator::finish,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    // Empties count as failures without a cause
+    public static <T> Collector<Optional<T>, ?, ResultSummary> summarizingOptional(Predicate<? super T> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter must not be null");
+        }
+        return Collector.of(
+                () -> new Accumulator(0),
+                (acc, result) -> {
+                    if (result.isPresent()) {
+                        acc.success(filter.test(result.get()));
+                    } else {
+                        acc.failures++;
+                    }
+                },
+                Accumulator::merge,
+                Accumulator::finish,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    private static final class Accumulator {
+        final int maxSamples;
+        long successes;
+        long failures;
+        long matches;
+        final TreeMap<String, Long> byType = new TreeMap<>();
+        final List<Throwable> samples = new ArrayList<>();
+
+        Accumulator(int maxSamples) {
+            this.maxSamples = maxSamples;
+        }
+
+        void success(boolean matched) {
+            successes++;
+            if (matched) matches++;
+        }
+
+        void failure(Throwable error) {
+            failures++;
+            byType.merge(error.getClass().getName(), 1L, Long::sum);
+            if (samples.size() < maxSamples) samples.add(error);
+        }
+
+        Accumulator merge(Accumulator other) {
+            successes += other.successes;
+            failures += other.failures;
+            matches += other.matches;
+            other.byType.forEach((type, n) -> byType.merge(type, n, Long::sum));
+            for (int i = 0; i < other.samples.size() && samples.size() < maxSamples; i++) {
+                samples.add(other.samples.get(i));
+            }
+            return this;
+        }
+
+        ResultSummary finish() {
+            return new ResultSummary(successes, failures, matches, byType, samples);
+        }
+    }
+}
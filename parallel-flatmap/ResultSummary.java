@@ -0,0 +1,60 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Everything one pass over a stream of Try (or Optional) results can tell: how many succeeded, how many
+// failed and with which exception types, how many successes matched the pipeline's filter, and a few
+// sample errors for logs. Built by ResultCollectors. For Optional streams, failures are the empties.
+public final class ResultSummary {
+    private final long successes;
+    private final long failures;
+    private final long matches;
+    private final Map<String, Long> failuresByType;
+    private final List<Throwable> sampleErrors;
+
+    ResultSummary(long successes, long failures, long matches, Map<String, Long> failuresByType,
+                  List<Throwable> sampleErrors) {
+        this.successes = successes;
+        this.failures = failures;
+        this.matches = matches;
+        this.failuresByType = Collections.unmodifiableMap(failuresByType);
+        this.sampleErrors = Collections.unmodifiableList(sampleErrors);
+    }
+
+    public long getTotal() {
+        return successes + failures;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    // Successes accepted by the filter, i.e. what the filter(...).count() pipelines report
+    public long getMatches() {
+        return matches;
+    }
+
+    // Failure counts keyed by exception class name
+    public Map<String, Long> getFailuresByType() {
+        return failuresByType;
+    }
+
+    public List<Throwable> getSampleErrors() {
+        return sampleErrors;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultSummary{" +
+                "successes=" + successes +
+                ", failures=" + failures +
+                ", matches=" + matches +
+                ", failuresByType=" + failuresByType +
+                ", sampleErrors=" + sampleErrors.size() +
+                '}';
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+// Retries failed fetches up to maxAttempts with "full jitter" exponential backoff: before retry n it
+// sleeps a random time in [0, min(maxDelay, baseDelay * 2^(n-1))], so callers that failed together
+// don't come back together. A token-bucket retry budget refills by budgetRatio per call and holds at
+// most MAX_RETRY_BURST retries, so when the upstream fails broadly retries stay a small fraction of
+// the traffic instead of multiplying it.
+// Short-circuits from a CircuitBreaker and cancellations are never retried.
+public final class RetryPolicy implements TryPolicy {
+    private static final long MAX_RETRY_BURST = 10;
+    // Budget tokens are kept in thousandths so fractional ratios refill exactly
+    private static final long TOKEN = 1_000;
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long refillPerCall;
+    private final AtomicLong budget = new AtomicLong(MAX_RETRY_BURST * TOKEN);
+    private final Predicate<Throwable> retryable;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+
+    private RetryPolicy(Builder b) {
+        this.maxAttempts = b.maxAttempts;
+        this.baseDelayNanos = b.baseDelayNanos;
+        this.maxDelayNanos = b.maxDelayNanos;
+        this.refillPerCall = Math.round(b.budgetRatio * TOKEN);
+        this.retryable = b.retryable;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> IntFunction<Try<T>> wrap(IntFunction<Try<T>> fetch) {
+        return id -> call(id, fetch);
+    }
+
+    private <T> Try<T> call(int id, IntFunction<Try<T>> fetch) {
+        calls.increment();
+        if (refillPerCall > 0 && budget.get() < MAX_RETRY_BURST * TOKEN) {
+            budget.accumulateAndGet(refillPerCall, (tokens, add) -> Math.min(MAX_RETRY_BURST * TOKEN, tokens + add));
+        }
+        Try<T> result = attempt(id, fetch);
+        for (int attempt = 1; attempt < maxAttempts && result.isFailure(); attempt++) {
+            if (!retryable.test(result.getError())) {
+                return result;
+            }
+            if (!withdrawRetryToken()) {
+                budgetDenied.increment();
+                return result;
+            }
+            if (!backoff(attempt)) {
+                return result;
+            }
+            retries.increment();
+            result = attempt(id, fetch);
+            if (result.isSuccess()) {
+                recovered.increment();
+            }
+        }
+        if (result.isFailure() && maxAttempts > 1) {
+            exhausted.increment();
+        }
+        return result;
+    }
+
+    private <T> Try<T> attempt(int id, IntFunction<Try<T>> fetch) {
+        attempts.increment();
+        try {
+            return fetch.apply(id);
+        } catch (RuntimeException e) {
+            return Try.failure(e);
+        }
+    }
+
+    private boolean withdrawRetryToken() {
+        while (true) {
+            long tokens = budget.get();
+            if (tokens < TOKEN) return false;
+            if (budget.compareAndSet(tokens, tokens - TOKEN)) return true;
+        }
+    }
+
+    // False when interrupted while waiting: the caller gave up, so stop retrying
+    private boolean backoff(int retry) {
+        long cap = baseDelayNanos << Math.min(retry - 1, 30);
+        if (cap <= 0 || cap > maxDelayNanos) cap = maxDelayNanos;
+        if (cap == 0) return !Thread.currentThread().isInterrupted();
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    // First attempts plus retries
+    public long attempts() {
+        return attempts.sum();
+    }
+
+    public long retries() {
+        return retries.sum();
+    }
+
+    public long budgetDenied() {
+        return budgetDenied.sum();
+    }
+
+    // Calls that still failed after their last permitted attempt
+    public long exhausted() {
+        return exhausted.sum();
+    }
+
+    // Calls that failed at first and succeeded on a retry
+    public long recovered() {
+        return recovered.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "calls=" + calls() +
+                ", attempts=" + attempts() +
+                ", retries=" + retries() +
+                ", recovered=" + recovered() +
+                ", exhausted=" + exhausted() +
+                ", budgetDenied=" + budgetDenied() +
+                '}';
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private long baseDelayNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        private double budgetRatio = 0.2;
+        private Predicate<Throwable> retryable = e -> !(e instanceof CircuitBreaker.OpenException
+                || e instanceof InterruptedException || e instanceof CancellationException);
+
+        private Builder() {}
+
+        // Total attempts per call, including the first
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("Max attempts must be > 0, got " + maxAttempts);
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder backoff(long baseDelay, long maxDelay, TimeUnit unit) {
+            if (baseDelay < 0 || maxDelay < baseDelay || unit == null) {
+                throw new IllegalArgumentException("Require 0 <= baseDelay <= maxDelay with a unit, got "
+                        + baseDelay + ", " + maxDelay + " " + unit);
+            }
+            this.baseDelayNanos = unit.toNanos(baseDelay);
+            this.maxDelayNanos = unit.toNanos(maxDelay);
+            return this;
+        }
+
+        // Retry tokens earned per call: over time retries stay within this fraction of calls
+        public Builder budget(double ratio) {
+            if (!(ratio >= 0.0)) {
+                throw new IllegalArgumentException("Retry budget ratio must be >= 0, got " + ratio);
+            }
+            this.budgetRatio = ratio;
+            return this;
+        }
+
+        // Further restricts which failures are retried; breaker short-circuits and cancellations never are
+        public Builder retryIf(Predicate<Throwable> retryable) {
+            if (retryable == null) {
+                throw new IllegalArgumentException("Retry predicate must not be null");
+            }
+            this.retryable = this.retryable.and(retryable);
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -18,6 +18,17 @@ public final class Try<T> {
         return new Try<>(null, error);
     }
 
+    // Failure for expected, high-volume errors where capturing a stack trace (fillInStackTrace) would
+    // cost more than the call itself. type builds the caller's own StacklessException subclass, so the
+    // failure keeps a meaningful type, e.g. stacklessFailure(UpstreamException::new, "Upstream error")
+    public static <T> Try<T> stacklessFailure(Function<String, ? extends StacklessException> type, String message) {
+        return new Try<>(null, type.apply(message));
+    }
+
+    public static <T> Try<T> stacklessFailure(String message) {
+        return stacklessFailure(StacklessException::new, message);
+    }
+
     public boolean isSuccess() {
         return error == null;
     }
@@ -26,6 +37,11 @@ public final class Try<T> {
         return error != null;
     }
 
+    // The failure cause, or null for a success
+    public Throwable getError() {
+        return error;
+    }
+
     public T get() {
         if (isFailure()) throw new RuntimeException(error);
         return value;
@@ -35,8 +51,10 @@ public final class Try<T> {
         return isSuccess() ? Optional.ofNullable(value) : Optional.empty();
     }
 
+    // A failure is passed through as is: its value is always null, so it is a valid Try of any type
+    @SuppressWarnings("unchecked")
     public <U> Try<U> map(Function<T, U> mapper) {
-        if (isFailure()) return failure(error);
+        if (isFailure()) return (Try<U>) this;
         try {
             return success(mapper.apply(value));
         } catch (Throwable t) {
@@ -44,8 +62,9 @@ public final class Try<T> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public <U> Try<U> flatMap(Function<T, Try<U>> mapper) {
-        if (isFailure()) return failure(error);
+        if (isFailure()) return (Try<U>) this;
         try {
             return mapper.apply(value);
         } catch (Throwable t) {
@@ -65,4 +84,13 @@ public final class Try<T> {
             return failure(t);
         }
     }
-}
\ No newline at end of file
+
+    // RuntimeException without a stack trace or suppression list; subclass it to give a failure its own type
+    public static class StacklessException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public StacklessException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+import java.util.function.IntFunction;
+
+// A resilience policy that wraps an id -> Try fetch in another one, e.g. a RetryPolicy, CircuitBreaker
+// or HedgePolicy. Policies hold their own counters, so one instance per pipeline keeps them separate.
+public interface TryPolicy {
+    <T> IntFunction<Try<T>> wrap(IntFunction<Try<T>> fetch);
+
+    // Applies the policies outermost first: decorate(f, retry, breaker) retries calls through the breaker
+    static <T> IntFunction<Try<T>> decorate(IntFunction<Try<T>> fetch, TryPolicy... policies) {
+        IntFunction<Try<T>> decorated = fetch;
+        for (int i = policies.length - 1; i >= 0; i--) {
+            decorated = policies[i].wrap(decorated);
+        }
+        return decorated;
+    }
+}
@@ -0,0 +1,262 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+// Runs blocking ApiClient fetches on virtual threads instead of the common ForkJoinPool, so I/O-bound
+// calls are limited by maxConcurrency rather than the CPU count and never block other parallel streams.
+// One virtual thread per call; a shared semaphore caps calls in flight across all callers. A call still
+// running after the timeout is interrupted and replaced by the fallback result, and close() (or
+// interrupting the thread waiting in fetchAll) cancels everything outstanding the same way.
+// Results come back in id order, ready for the usual Optional/Try filter and count pipeline.
+public final class VirtualThreadFetcher implements AutoCloseable {
+    private final int maxConcurrency;
+    private final long timeoutNanos;
+    private final Semaphore permits;
+    private final ThreadFactory threads = Thread.ofVirtual().name("api-fetch-", 0).factory();
+    private final ScheduledThreadPoolExecutor timer;
+    private final Set<Call<?>> calls = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private final LongAdder started = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private VirtualThreadFetcher(Builder b) {
+        this.maxConcurrency = b.maxConcurrency;
+        this.timeoutNanos = b.timeoutNanos;
+        this.permits = new Semaphore(b.maxConcurrency);
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "api-fetch-timeouts");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Timed-out and cancelled calls come back as Optional.empty()
+    public Stream<Optional<Record>> fetchOptional(List<Integer> ids) throws InterruptedException {
+        return this.<Optional<Record>>fetchAll(ids, ApiClient::fetchOptional, (id, cause) -> Optional.empty()).stream();
+    }
+
+    // Timed-out and cancelled calls come back as failures holding a TimeoutException / CancellationException
+    public Stream<Try<Record>> fetchTry(List<Integer> ids) throws InterruptedException {
+        return this.<Try<Record>>fetchAll(ids, ApiClient::fetchTry, (id, cause) -> Try.failure(cause)).stream();
+    }
+
+    // Fetches every id and returns the results in id order. fallback(id, cause) supplies the result of a
+    // call that threw, timed out or was cancelled. If the waiting thread is interrupted, the outstanding
+    // calls are cancelled and InterruptedException is thrown.
+    public <T> List<T> fetchAll(List<Integer> ids, IntFunction<T> fetch, BiFunction<Integer, Throwable, T> fallback)
+            throws InterruptedException {
+        if (ids == null || fetch == null || fallback == null) {
+            throw new IllegalArgumentException("Ids, fetch and fallback must not be null");
+        }
+        Call<T> call = new Call<>(ids, fallback);
+        calls.add(call);
+        try {
+            if (closed) {
+                throw new IllegalStateException("Fetcher is closed");
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                permits.acquire();
+                if (call.isCancelled()) {
+                    permits.release();
+                    break;
+                }
+                int index = i;
+                Thread thread = threads.newThread(() -> run(call, index, fetch));
+                call.threads.set(index, thread);
+                started.increment();
+                int now = inFlight.incrementAndGet();
+                peakInFlight.accumulateAndGet(now, Math::max);
+                // Armed before start() so run() always finds the timer to cancel; a timer left
+                // behind would pin the whole Call until it fired
+                if (timeoutNanos > 0) {
+                    try {
+                        call.timers.set(index, timer.schedule(() -> expire(call, index), timeoutNanos, TimeUnit.NANOSECONDS));
+                    } catch (RejectedExecutionException e) {
+                        // close() shut the timer down and has already cancelled this call
+                    }
+                }
+                thread.start();
+            }
+            call.done.await();
+            return call.results();
+        } catch (InterruptedException e) {
+            cancel(call);
+            throw e;
+        } finally {
+            calls.remove(call);
+        }
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public long started() {
+        return started.sum();
+    }
+
+    public long timedOut() {
+        return timedOut.sum();
+    }
+
+    public long cancelled() {
+        return cancelled.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int peakInFlight() {
+        return peakInFlight.get();
+    }
+
+    // Cancels every outstanding call and rejects new ones
+    @Override
+    public void close() {
+        closed = true;
+        for (Call<?> call : calls) {
+            cancel(call);
+        }
+        timer.shutdownNow();
+    }
+
+    private <T> void run(Call<T> call, int index, IntFunction<T> fetch) {
+        T result;
+        try {
+            result = fetch.apply(call.ids.get(index));
+            if (result == null) {
+                result = call.fallback.apply(call.ids.get(index), new NullPointerException("Fetch returned null"));
+            }
+        } catch (Throwable t) {
+            result = call.fallback.apply(call.ids.get(index), t);
+        } finally {
+            ScheduledFuture<?> pending = call.timers.get(index);
+            if (pending != null) pending.cancel(false);
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+        call.complete(index, result);
+    }
+
+    private void expire(Call<?> call, int index) {
+        if (call.abandon(index, new TimeoutException("Fetch timed out for id=" + call.ids.get(index)))) {
+            timedOut.increment();
+        }
+    }
+
+    private void cancel(Call<?> call) {
+        call.cancelled = true;
+        for (int i = 0; i < call.ids.size(); i++) {
+            if (call.abandon(i, new CancellationException("Fetch cancelled for id=" + call.ids.get(i)))) {
+                cancelled.increment();
+            }
+        }
+    }
+
+    // State of one fetchAll: the first of completion, timeout or cancellation to claim a slot decides it,
+    // so the caller is released once every slot is decided even if an interrupted fetch is slow to exit
+    private static final class Call<T> {
+        final List<Integer> ids;
+        final BiFunction<Integer, Throwable, T> fallback;
+        final AtomicReferenceArray<Object> results;
+        final AtomicReferenceArray<Thread> threads;
+        final AtomicReferenceArray<ScheduledFuture<?>> timers;
+        final CountDownLatch done;
+        volatile boolean cancelled;
+
+        Call(List<Integer> ids, BiFunction<Integer, Throwable, T> fallback) {
+            this.ids = ids;
+            this.fallback = fallback;
+            this.results = new AtomicReferenceArray<>(ids.size());
+            this.threads = new AtomicReferenceArray<>(ids.size());
+            this.timers = new AtomicReferenceArray<>(ids.size());
+            this.done = new CountDownLatch(ids.size());
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void complete(int index, T result) {
+            if (results.compareAndSet(index, null, result)) {
+                done.countDown();
+            }
+        }
+
+        // Claims the slot with the fallback and interrupts the running fetch; false if it already finished
+        boolean abandon(int index, Throwable cause) {
+            if (!results.compareAndSet(index, null, fallback.apply(ids.get(index), cause))) {
+                return false;
+            }
+            done.countDown();
+            Thread thread = threads.get(index);
+            if (thread != null) thread.interrupt();
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> results() {
+            List<T> out = new ArrayList<>(results.length());
+            for (int i = 0; i < results.length(); i++) {
+                out.add((T) results.get(i));
+            }
+            return out;
+        }
+    }
+
+    public static final class Builder {
+        private int maxConcurrency = 256;
+        private long timeoutNanos;
+
+        private Builder() {}
+
+        // Upper bound on fetches in flight across all callers of the fetcher
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) {
+                throw new IllegalArgumentException("Max concurrency must be > 0, got " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        // Per-call timeout; zero disables it
+        public Builder timeout(long timeout, TimeUnit unit) {
+            if (timeout < 0 || unit == null) {
+                throw new IllegalArgumentException("Timeout must be >= 0 with a unit, got " + timeout + " " + unit);
+            }
+            this.timeoutNanos = unit.toNanos(timeout);
+            return this;
+        }
+
+        public VirtualThreadFetcher build() {
+            return new VirtualThreadFetcher(this);
+        }
+    }
+}